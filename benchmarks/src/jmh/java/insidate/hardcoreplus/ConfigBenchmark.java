@@ -0,0 +1,49 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Config paths: forced reload of an unchanged file, file formatting, and snapshot reads on the hot path. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigBenchmark {
+    Path dir;
+    Properties props;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("hcp-bench-config");
+        ConfigManager.load(dir);
+        props = new Properties();
+        props.putAll(ConfigManager.current().values());
+    }
+
+    @TearDown
+    public void tearDown() { TreeOps.deleteTree(dir); }
+
+    @Benchmark
+    public ConfigSnapshot reloadUnchanged() {
+        ConfigManager.reload();
+        return ConfigManager.current();
+    }
+
+    @Benchmark
+    public String format() { return ConfigManager.format(props); }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int snapshotRead() { return ConfigManager.current().restartDelaySeconds() + (ConfigManager.current().forceNewSeed() ? 1 : 0); }
+}
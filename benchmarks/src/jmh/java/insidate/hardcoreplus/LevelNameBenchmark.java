@@ -0,0 +1,43 @@
+package insidate.hardcoreplus;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** New level-name generation: per-call DateTimeFormatter.ofPattern (previous code) vs the precompiled snapshot. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LevelNameBenchmark {
+    ConfigSnapshot snapshot;
+    Instant now;
+
+    @Setup
+    public void setup() {
+        Properties p = new Properties();
+        p.setProperty("time_format", ConfigSnapshot.DEFAULT_TIME_FORMAT);
+        p.setProperty("new_level_name_format", ConfigSnapshot.DEFAULT_LEVEL_NAME_FORMAT);
+        snapshot = new ConfigSnapshot(p);
+        now = Instant.now();
+    }
+
+    @Benchmark
+    public String ofPatternPerCall() {
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern(ConfigSnapshot.DEFAULT_TIME_FORMAT).withZone(ZoneId.systemDefault());
+        String name = ConfigSnapshot.DEFAULT_LEVEL_NAME_FORMAT.replace("%name%", "world").replace("%time%", fmt.format(now)).replace("%id%", "0a1b2c3d");
+        return NameUtil.sanitizeName(name);
+    }
+
+    @Benchmark
+    public String snapshotNewLevelName() { return snapshot.newLevelName("world", now, "0a1b2c3d"); }
+}
@@ -0,0 +1,31 @@
+package insidate.hardcoreplus;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** NameUtil against the previous String-regex versions (Pattern compiled on every call). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NameUtilBenchmark {
+    String rawName = "My:World? <hardcore>_12-30-00_2025-01-01";
+    String rotatedName = "world_12-30-00_2025-01-01_13-45-10_2025-01-02";
+
+    @Benchmark
+    public String sanitizeName() { return NameUtil.sanitizeName(rawName); }
+
+    @Benchmark
+    public String sanitizeNameLegacy() { return rawName.replaceAll("[\\\\/:*?\"<>|]", "-").trim(); }
+
+    @Benchmark
+    public String stripTimeSuffixes() { return NameUtil.stripTimeSuffixes(rotatedName); }
+
+    @Benchmark
+    public String stripTimeSuffixesLegacy() { return rotatedName.replaceFirst("(?:_\\d{2}-\\d{2}-\\d{2}_\\d{4}-\\d{2}-\\d{2})+$", ""); }
+}
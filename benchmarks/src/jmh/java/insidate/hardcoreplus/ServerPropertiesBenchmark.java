@@ -0,0 +1,67 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** server.properties: per-call Properties load/store (previous code) vs ServerPropertiesStore. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServerPropertiesBenchmark {
+    Path dir;
+    long seed;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("hcp-bench-props");
+        StringBuilder sb = new StringBuilder("#Minecraft server properties\n");
+        // Roughly the size of a vanilla 1.21 server.properties
+        for (int i = 0; i < 60; i++) sb.append("property-").append(i).append("=value-").append(i).append('\n');
+        sb.append("level-name=world\nlevel-seed=\nhardcore=true\n");
+        Files.writeString(dir.resolve(ServerPropertiesStore.FILE_NAME), sb.toString());
+    }
+
+    @TearDown
+    public void tearDown() { TreeOps.deleteTree(dir); }
+
+    @Benchmark
+    public String parseLegacy() throws IOException {
+        Properties p = new Properties();
+        try (var in = Files.newInputStream(dir.resolve(ServerPropertiesStore.FILE_NAME))) { p.load(in); }
+        return p.getProperty("level-name");
+    }
+
+    @Benchmark
+    public String parseCached() { return ServerPropertiesStore.levelName(dir); }
+
+    @Benchmark
+    public void storeLegacy() throws IOException {
+        Path file = dir.resolve(ServerPropertiesStore.FILE_NAME);
+        Properties p = new Properties();
+        try (var in = Files.newInputStream(file)) { p.load(in); }
+        p.setProperty("level-seed", Long.toString(++seed));
+        try (var out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) { p.store(out, null); }
+    }
+
+    @Benchmark
+    public void storeAtomic() throws IOException {
+        Map<String, String> edits = new LinkedHashMap<>();
+        edits.put("level-seed", Long.toString(++seed));
+        ServerPropertiesStore.update(dir, edits);
+    }
+}
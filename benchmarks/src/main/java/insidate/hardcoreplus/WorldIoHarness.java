@@ -0,0 +1,187 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+/**
+ * Standalone I/O harness: builds synthetic worlds and times every rotation strategy the mod uses
+ * (atomic move, non-atomic move, snapshot, copy+delete, zip, tar.gz, dedup, delete) on each root
+ * directory, e.g. a local disk and a tmpfs. Run with ./gradlew :benchmarks:worldIoBench.
+ *
+ * Options (--key=value): regions, region-kb, players, iterations, roots (comma separated),
+ * strategies (comma separated names from {@link Strategy}), seed.
+ */
+public final class WorldIoHarness {
+    private WorldIoHarness() {}
+
+    enum Strategy { ATOMIC_MOVE, MOVE, SNAPSHOT, COPY_DELETE, ZIP, TAR_GZ, DEDUP, DELETE }
+
+    record Shape(int regions, int regionKb, int players, long seed) {}
+
+    private static final Predicate<Path> SKIP_LOCK = p -> p.getFileName().toString().equalsIgnoreCase("session.lock");
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--")) continue;
+            int eq = a.indexOf('=');
+            if (eq > 0) opts.put(a.substring(2, eq), a.substring(eq + 1));
+        }
+        Shape shape = new Shape(
+                Integer.parseInt(opts.getOrDefault("regions", "64")),
+                Integer.parseInt(opts.getOrDefault("region-kb", "2048")),
+                Integer.parseInt(opts.getOrDefault("players", "8")),
+                Long.parseLong(opts.getOrDefault("seed", "42")));
+        int iterations = Integer.parseInt(opts.getOrDefault("iterations", "5"));
+        List<Path> roots = new ArrayList<>();
+        if (opts.containsKey("roots")) {
+            for (String r : opts.get("roots").split(",")) if (!r.isBlank()) roots.add(Path.of(r.trim()));
+        } else {
+            roots.add(Path.of("build", "world-io"));
+            Path shm = Path.of("/dev/shm");
+            if (Files.isDirectory(shm) && Files.isWritable(shm)) roots.add(shm.resolve("hcp-world-io"));
+        }
+        List<Strategy> strategies = new ArrayList<>();
+        for (String s : opts.getOrDefault("strategies", String.join(",", Arrays.stream(Strategy.values()).map(Enum::name).toList())).split(",")) {
+            strategies.add(Strategy.valueOf(s.trim().toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_')));
+        }
+
+        System.out.printf(Locale.ROOT, "World shape: %d regions x ~%d KB, %d players; %d iterations; io_parallelism=%d%n",
+                shape.regions(), shape.regionKb(), shape.players(), iterations, TreeOps.parallelism());
+        System.out.printf(Locale.ROOT, "%-14s %-28s %6s %10s %9s %9s %9s %9s %10s%n", "strategy", "root", "runs", "MB", "p50 ms", "p90 ms", "p99 ms", "max ms", "MB/s p50");
+        for (Path root : roots) {
+            Files.createDirectories(root);
+            Path template = root.resolve("template");
+            TreeOps.deleteTree(template);
+            long bytes = generate(template, shape);
+            try {
+                for (Strategy s : strategies) run(root, template, bytes, s, iterations);
+            } finally {
+                TreeOps.deleteTree(template);
+            }
+        }
+    }
+
+    private static void run(Path root, Path template, long bytes, Strategy strategy, int iterations) throws IOException {
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            Path source = root.resolve("world-" + i);
+            Path backups = root.resolve("backups-" + i);
+            TreeOps.deleteTree(source);
+            TreeOps.deleteTree(backups);
+            // Fresh byte copy each run so hardlinks/reflinks never see a shared source (not timed)
+            TreeOps.copyTree(template, source, null, false, null);
+            Files.createDirectories(backups);
+            // Hold session.lock like a server that has not fully let go of its world yet
+            try (FileChannel ch = FileChannel.open(source.resolve("session.lock"), StandardOpenOption.WRITE)) {
+                FileLock lock = ch.tryLock();
+                try {
+                    long t0 = System.nanoTime();
+                    apply(strategy, source, backups.resolve("world"));
+                    nanos[i] = System.nanoTime() - t0;
+                } finally {
+                    if (lock != null && lock.isValid()) lock.release();
+                }
+            }
+            TreeOps.deleteTree(source);
+            TreeOps.deleteTree(backups);
+        }
+        Arrays.sort(nanos);
+        double mb = bytes / 1048576.0;
+        double p50 = percentile(nanos, 50) / 1e6;
+        System.out.printf(Locale.ROOT, "%-14s %-28s %6d %10.1f %9.1f %9s %9s %9.1f %10.1f%n",
+                strategy, abbreviate(root.toAbsolutePath().toString(), 28), iterations, mb, p50,
+                tailMillis(nanos, 90), tailMillis(nanos, 99), nanos[nanos.length - 1] / 1e6,
+                p50 > 0 ? mb / (p50 / 1000.0) : 0);
+    }
+
+    // Mirrors what BackupQueue does for each strategy, including removing the source afterwards
+    private static void apply(Strategy strategy, Path source, Path target) throws IOException {
+        switch (strategy) {
+            case ATOMIC_MOVE -> Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            case MOVE -> Files.move(source, target);
+            case SNAPSHOT -> { Snapshot.snapshot(source, target, true, SKIP_LOCK, null); TreeOps.deleteTree(source); }
+            case COPY_DELETE -> { Snapshot.copy(source, target, SKIP_LOCK, null); TreeOps.deleteTree(source); }
+            case ZIP -> { BackupArchive.write(source, target.resolveSibling("world.zip"), BackupArchive.Format.ZIP, SKIP_LOCK); TreeOps.deleteTree(source); }
+            case TAR_GZ -> { BackupArchive.write(source, target.resolveSibling("world.tar.gz"), BackupArchive.Format.TAR_GZ, SKIP_LOCK); TreeOps.deleteTree(source); }
+            case DEDUP -> { DedupStore.store(source, target.getParent(), "world", SKIP_LOCK, TreeOps.parallelism()); TreeOps.deleteTree(source); }
+            case DELETE -> TreeOps.deleteTree(source);
+        }
+    }
+
+    /** Write a world laid out like a vanilla save; returns its total size. Region data is random (already-compressed chunks). */
+    static long generate(Path world, Shape shape) throws IOException {
+        SplittableRandom rnd = new SplittableRandom(shape.seed());
+        long total = 0;
+        total += write(world.resolve("level.dat"), 4 * 1024, rnd);
+        total += write(world.resolve("level.dat_old"), 4 * 1024, rnd);
+        total += write(world.resolve("session.lock"), 3, rnd);
+        int side = (int) Math.ceil(Math.sqrt(shape.regions()));
+        for (int i = 0; i < shape.regions(); i++) {
+            String name = "r." + (i % side - side / 2) + "." + (i / side - side / 2) + ".mca";
+            total += write(world.resolve("region").resolve(name), regionSize(shape.regionKb(), rnd), rnd);
+            total += write(world.resolve("entities").resolve(name), regionSize(Math.max(8, shape.regionKb() / 8), rnd), rnd);
+            total += write(world.resolve("poi").resolve(name), regionSize(Math.max(8, shape.regionKb() / 32), rnd), rnd);
+        }
+        for (String dim : new String[] {"DIM-1", "DIM1"}) {
+            for (int i = 0; i < Math.max(1, shape.regions() / 16); i++) {
+                total += write(world.resolve(dim).resolve("region").resolve("r." + i + ".0.mca"), regionSize(shape.regionKb(), rnd), rnd);
+            }
+        }
+        for (int i = 0; i < shape.players(); i++) {
+            String uuid = new java.util.UUID(rnd.nextLong(), rnd.nextLong()).toString();
+            total += write(world.resolve("playerdata").resolve(uuid + ".dat"), 8 * 1024 + rnd.nextInt(8 * 1024), rnd);
+            total += write(world.resolve("playerdata").resolve(uuid + ".dat_old"), 8 * 1024 + rnd.nextInt(8 * 1024), rnd);
+            total += write(world.resolve("advancements").resolve(uuid + ".json"), 2 * 1024 + rnd.nextInt(6 * 1024), rnd);
+            total += write(world.resolve("stats").resolve(uuid + ".json"), 1024 + rnd.nextInt(4 * 1024), rnd);
+        }
+        for (String data : new String[] {"raids.dat", "random_sequences.dat", "scoreboard.dat", "chunks.dat"}) {
+            total += write(world.resolve("data").resolve(data), 512 + rnd.nextInt(4 * 1024), rnd);
+        }
+        return total;
+    }
+
+    // Region files are whole 4 KiB sectors; sizes vary +-50% around the mean
+    private static int regionSize(int meanKb, SplittableRandom rnd) {
+        int kb = Math.max(8, meanKb / 2 + rnd.nextInt(Math.max(1, meanKb)));
+        return (kb + 3) / 4 * 4 * 1024;
+    }
+
+    private static long write(Path file, int size, SplittableRandom rnd) throws IOException {
+        Files.createDirectories(file.getParent());
+        byte[] buf = new byte[Math.min(size, 1 << 20)];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int left = size; left > 0; left -= buf.length) {
+                rnd.nextBytes(buf);
+                out.write(buf, 0, Math.min(left, buf.length));
+            }
+        }
+        return size;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    // A tail percentile is only meaningful once some runs lie beyond it (p99 needs 100 runs), otherwise it is just the max
+    private static String tailMillis(long[] sorted, int p) {
+        return sorted.length * (100 - p) < 100 ? "-" : String.format(Locale.ROOT, "%.1f", percentile(sorted, p) / 1e6);
+    }
+
+    private static String abbreviate(String s, int max) { return s.length() <= max ? s : "..." + s.substring(s.length() - max + 3); }
+}
@@ -0,0 +1,472 @@
+package insidate.hardcoreplus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Single-file backup archives (zip or tar.gz). Files are compressed in parallel (one task per
+ * file, bounded in-flight window) and appended in order by one writer, so the disk sees a single
+ * sequential stream. Files over 16 MiB are not buffered: the writer streams them straight into the
+ * archive when their turn comes. The last entry, hcp-manifest.txt, lists every file with its size and SHA-256.
+ */
+public final class BackupArchive {
+    private BackupArchive() {}
+
+    public static final String MANIFEST_NAME = "hcp-manifest.txt";
+
+    public enum Format {
+        DIRECTORY(""), ZIP(".zip"), TAR_GZ(".tar.gz"), DEDUP(DedupStore.MANIFEST_EXT);
+
+        private final String extension;
+
+        Format(String extension) { this.extension = extension; }
+
+        public String extension() { return extension; }
+
+        // backup_format=directory|zip|tar.gz|dedup
+        public static Format fromConfig(ConfigSnapshot cfg) {
+            String v = cfg.get("backup_format", "").trim().toLowerCase(Locale.ROOT);
+            return switch (v) {
+                case "zip" -> ZIP;
+                case "tar.gz", "tgz" -> TAR_GZ;
+                case "dedup" -> DEDUP;
+                default -> DIRECTORY;
+            };
+        }
+    }
+
+    /** files/bytes are the uncompressed input; sha256 is the digest of the whole archive file. */
+    public record Result(long files, long bytes, long archiveBytes, String sha256) {}
+
+    // Larger files are streamed by the writer instead of being compressed in memory by a worker
+    private static final long STREAM_THRESHOLD = 16L << 20;
+
+    // payload is the compressed entry, or null once a streamed entry has been written
+    private record Entry(String name, long size, long mtime, String sha256, long crc, byte[] payload) {}
+
+    // A file waiting for its turn; compressed is null for files the writer streams itself
+    private record Pending(Path file, String name, Future<Entry> compressed) {}
+
+    /** Archive every regular file under source (minus skip) into target, written via a .part file. */
+    public static Result write(Path source, Path target, Format format, Predicate<Path> skip) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(source)) {
+            walk.filter(Files::isRegularFile).filter(p -> skip == null || !skip.test(p)).forEach(files::add);
+        }
+        int level = Math.max(0, Math.min(9, ConfigManager.getInt("backup_compression_level", 6)));
+        int threads = TreeOps.parallelism();
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        MessageDigest archiveDigest = sha256();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "hcp-archive");
+            t.setDaemon(true);
+            return t;
+        });
+        long totalBytes = 0;
+        long archiveBytes;
+        StringBuilder manifest = new StringBuilder();
+        try {
+            try (FileChannel ch = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 OutputStream raw = Channels.newOutputStream(ch);
+                 DigestOutputStream digestOut = new DigestOutputStream(raw, archiveDigest);
+                 CountingOutputStream out = new CountingOutputStream(new java.io.BufferedOutputStream(digestOut, 1 << 20))) {
+                Writer writer = format == Format.ZIP ? new ZipWriter(out, level) : new TarGzWriter(out, level);
+                ArrayDeque<Pending> window = new ArrayDeque<>();
+                int next = 0;
+                while (next < files.size() || !window.isEmpty()) {
+                    while (next < files.size() && window.size() < threads * 2) {
+                        Path file = files.get(next++);
+                        String name = source.relativize(file).toString().replace('\\', '/');
+                        window.add(new Pending(file, name, Files.size(file) > STREAM_THRESHOLD ? null : pool.submit(() -> compress(file, name, format, level))));
+                    }
+                    Pending p = window.poll();
+                    Entry e;
+                    if (p.compressed() == null) e = writer.stream(p.file(), p.name());
+                    else writer.add(e = await(p.compressed()));
+                    totalBytes += e.size();
+                    manifest.append(e.sha256()).append("  ").append(e.size()).append("  ").append(e.name()).append('\n');
+                }
+                String header = "# HardcorePlus+ backup manifest\nformat=" + format.name().toLowerCase(Locale.ROOT)
+                        + "\nfiles=" + files.size() + "\nbytes=" + totalBytes + "\n";
+                byte[] manifestBytes = (header + manifest).getBytes(StandardCharsets.UTF_8);
+                writer.add(compress(manifestBytes, MANIFEST_NAME, System.currentTimeMillis(), format, level));
+                writer.finish();
+                out.flush();
+                // The old world is deleted once this returns, so the archive must survive a power loss
+                ch.force(true);
+                archiveBytes = out.count;
+            }
+            // Closed above, so the archive is complete on disk before it takes the final name
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            RotationJournal.syncDir(target.getParent());
+            return new Result(files.size(), totalBytes, archiveBytes, HexFormat.of().formatHex(archiveDigest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Entry await(Future<Entry> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while archiving", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    private static Entry compress(Path file, String name, Format format, int level) throws IOException {
+        return compress(Files.readAllBytes(file), name, Files.getLastModifiedTime(file).toMillis(), format, level);
+    }
+
+    private static Entry compress(byte[] data, String name, long mtime, Format format, int level) throws IOException {
+        String sha = HexFormat.of().formatHex(sha256().digest(data));
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        byte[] payload;
+        if (format == Format.ZIP) {
+            payload = deflateRaw(data, level);
+        } else {
+            // Each file becomes its own gzip member; concatenated members form one valid .tar.gz stream
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 2 + 1024);
+            try (GZIPOutputStream gz = new GZIPOutputStream(bos, 1 << 16) { { def.setLevel(level); } }) {
+                TarGzWriter.writeHeader(gz, name, data.length, mtime);
+                gz.write(data);
+                TarGzWriter.pad(gz, data.length);
+            }
+            payload = bos.toByteArray();
+        }
+        return new Entry(name, data.length, mtime, sha, crc.getValue(), payload);
+    }
+
+    private static byte[] deflateRaw(byte[] data, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] buf = new byte[1 << 16];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                bos.write(buf, 0, n);
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // Copy file to out, updating crc; returns its SHA-256. The size was already written to a header, so it must still match.
+    private static String copyHashed(Path file, OutputStream out, long expectedSize, CRC32 crc) throws IOException {
+        MessageDigest md = sha256();
+        long n = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[1 << 16];
+            for (int r; (r = in.read(buf)) > 0; ) {
+                out.write(buf, 0, r);
+                md.update(buf, 0, r);
+                crc.update(buf, 0, r);
+                n += r;
+            }
+        }
+        if (n != expectedSize) throw new IOException("File changed size while archiving: " + file);
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try { return MessageDigest.getInstance("SHA-256"); } catch (NoSuchAlgorithmException e) { throw new IllegalStateException(e); }
+    }
+
+    private interface Writer {
+        void add(Entry e) throws IOException;
+        // Compress file straight into the archive (writer thread) and describe what was written
+        Entry stream(Path file, String name) throws IOException;
+        void finish() throws IOException;
+    }
+
+    private static final class TarGzWriter implements Writer {
+        private final OutputStream out;
+        private final int level;
+
+        TarGzWriter(OutputStream out, int level) { this.out = out; this.level = level; }
+
+        @Override
+        public void add(Entry e) throws IOException { out.write(e.payload()); }
+
+        @Override
+        public Entry stream(Path file, String name) throws IOException {
+            long size = Files.size(file);
+            long mtime = Files.getLastModifiedTime(file).toMillis();
+            CRC32 crc = new CRC32();
+            String sha;
+            try (GZIPOutputStream gz = new GZIPOutputStream(new NonClosingOutputStream(out), 1 << 16) { { def.setLevel(level); } }) {
+                writeHeader(gz, name, size, mtime);
+                sha = copyHashed(file, gz, size, crc);
+                pad(gz, size);
+            }
+            return new Entry(name, size, mtime, sha, crc.getValue(), null);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            try (GZIPOutputStream gz = new GZIPOutputStream(new NonClosingOutputStream(out)) { { def.setLevel(level); } }) {
+                gz.write(new byte[1024]); // two zero blocks end the tar stream
+            }
+        }
+
+        static void writeHeader(OutputStream out, String name, long size, long mtimeMillis) throws IOException {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            if (nameBytes.length > 100) {
+                // GNU long name extension: a pseudo entry carrying the full path
+                byte[] longName = new byte[nameBytes.length + 1];
+                System.arraycopy(nameBytes, 0, longName, 0, nameBytes.length);
+                out.write(header("././@LongLink".getBytes(StandardCharsets.US_ASCII), longName.length, 0, (byte) 'L'));
+                out.write(longName);
+                pad(out, longName.length);
+                nameBytes = java.util.Arrays.copyOf(nameBytes, 100);
+            }
+            out.write(header(nameBytes, size, mtimeMillis / 1000L, (byte) '0'));
+        }
+
+        private static byte[] header(byte[] name, long size, long mtime, byte type) {
+            byte[] h = new byte[512];
+            System.arraycopy(name, 0, h, 0, Math.min(100, name.length));
+            octal(h, 100, 8, 0644);
+            octal(h, 108, 8, 0);
+            octal(h, 116, 8, 0);
+            octal(h, 124, 12, size);
+            octal(h, 136, 12, mtime);
+            java.util.Arrays.fill(h, 148, 156, (byte) ' ');
+            h[156] = type;
+            System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, h, 257, 6);
+            h[263] = '0';
+            h[264] = '0';
+            long sum = 0;
+            for (byte b : h) sum += b & 0xFF;
+            octal(h, 148, 7, sum);
+            return h;
+        }
+
+        private static void octal(byte[] h, int off, int len, long value) {
+            String s = Long.toOctalString(value);
+            int digits = len - 1;
+            for (int i = 0; i < digits; i++) h[off + i] = '0';
+            byte[] b = s.getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(b, 0, h, off + digits - b.length, b.length);
+            h[off + digits] = 0;
+        }
+
+        static void pad(OutputStream out, long size) throws IOException {
+            int rem = (int) (size % 512);
+            if (rem != 0) out.write(new byte[512 - rem]);
+        }
+    }
+
+    // Minimal zip writer for pre-deflated and streamed entries, with Zip64 records once sizes, offsets or counts overflow
+    private static final class ZipWriter implements Writer {
+        private static final long MAX32 = 0xFFFFFFFFL;
+        private static final int UTF8 = 0x0800, DATA_DESCRIPTOR = 0x0008;
+        private final CountingOutputStream out;
+        private final int level;
+        private final ByteArrayOutputStream central = new ByteArrayOutputStream();
+        private long entries;
+
+        ZipWriter(CountingOutputStream out, int level) { this.out = out; this.level = level; }
+
+        @Override
+        public void add(Entry e) throws IOException {
+            long offset = out.count;
+            byte[] name = e.name().getBytes(StandardCharsets.UTF_8);
+            long dos = dosTime(e.mtime());
+            out.write(le32(0x04034b50L));
+            out.write(le16(20));
+            out.write(le16(UTF8));
+            out.write(le16(8));
+            out.write(le32(dos));
+            out.write(le32(e.crc()));
+            out.write(le32(e.payload().length));
+            out.write(le32(e.size()));
+            out.write(le16(name.length));
+            out.write(le16(0));
+            out.write(name);
+            out.write(e.payload());
+            central(name, UTF8, dos, e.crc(), e.payload().length, e.size(), offset);
+        }
+
+        // CRC and sizes are only known afterwards, so they follow the data in a descriptor
+        @Override
+        public Entry stream(Path file, String name) throws IOException {
+            long size = Files.size(file);
+            long mtime = Files.getLastModifiedTime(file).toMillis();
+            long offset = out.count;
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            long dos = dosTime(mtime);
+            // Deflate can grow incompressible data slightly, so Zip64 starts well below 4 GiB
+            boolean zip64 = size > Integer.MAX_VALUE;
+            byte[] extra = zip64 ? concat(le16(0x0001), le16(16), le64(0), le64(0)) : new byte[0];
+            out.write(le32(0x04034b50L));
+            out.write(le16(zip64 ? 45 : 20));
+            out.write(le16(UTF8 | DATA_DESCRIPTOR));
+            out.write(le16(8));
+            out.write(le32(dos));
+            out.write(le32(0));
+            out.write(le32(zip64 ? MAX32 : 0));
+            out.write(le32(zip64 ? MAX32 : 0));
+            out.write(le16(nameBytes.length));
+            out.write(le16(extra.length));
+            out.write(nameBytes);
+            out.write(extra);
+            long dataStart = out.count;
+            CRC32 crc = new CRC32();
+            String sha;
+            Deflater deflater = new Deflater(level, true);
+            try (DeflaterOutputStream z = new DeflaterOutputStream(new NonClosingOutputStream(out), deflater, 1 << 16)) {
+                sha = copyHashed(file, z, size, crc);
+            } finally {
+                deflater.end();
+            }
+            long compressed = out.count - dataStart;
+            out.write(le32(0x08074b50L));
+            out.write(le32(crc.getValue()));
+            out.write(zip64 ? le64(compressed) : le32(compressed));
+            out.write(zip64 ? le64(size) : le32(size));
+            central(nameBytes, UTF8 | DATA_DESCRIPTOR, dos, crc.getValue(), compressed, size, offset);
+            return new Entry(name, size, mtime, sha, crc.getValue(), null);
+        }
+
+        private void central(byte[] name, int flags, long dos, long crc, long compressed, long size, long offset) throws IOException {
+            // Zip64 extra holds only the fields that overflow, in this order
+            ByteArrayOutputStream big = new ByteArrayOutputStream();
+            if (size >= MAX32) big.writeBytes(le64(size));
+            if (compressed >= MAX32) big.writeBytes(le64(compressed));
+            if (offset >= MAX32) big.writeBytes(le64(offset));
+            boolean zip64 = big.size() > 0;
+            byte[] extra = zip64 ? concat(le16(0x0001), le16(big.size()), big.toByteArray()) : new byte[0];
+            central.write(le32(0x02014b50L));
+            central.write(le16(zip64 ? 45 : 20));
+            central.write(le16(zip64 ? 45 : 20));
+            central.write(le16(flags));
+            central.write(le16(8));
+            central.write(le32(dos));
+            central.write(le32(crc));
+            central.write(le32(Math.min(compressed, MAX32)));
+            central.write(le32(Math.min(size, MAX32)));
+            central.write(le16(name.length));
+            central.write(le16(extra.length));
+            central.write(le16(0));
+            central.write(le16(0));
+            central.write(le16(0));
+            central.write(le32(0));
+            central.write(le32(Math.min(offset, MAX32)));
+            central.write(name);
+            central.write(extra);
+            entries++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            long cdOffset = out.count;
+            long cdSize = central.size();
+            central.writeTo(out);
+            if (entries >= 0xFFFF || cdOffset >= MAX32 || cdSize >= MAX32) {
+                long eocd64 = out.count;
+                out.write(le32(0x06064b50L));
+                out.write(le64(44));
+                out.write(le16(45));
+                out.write(le16(45));
+                out.write(le32(0));
+                out.write(le32(0));
+                out.write(le64(entries));
+                out.write(le64(entries));
+                out.write(le64(cdSize));
+                out.write(le64(cdOffset));
+                out.write(le32(0x07064b50L));
+                out.write(le32(0));
+                out.write(le64(eocd64));
+                out.write(le32(1));
+            }
+            out.write(le32(0x06054b50L));
+            out.write(le16(0));
+            out.write(le16(0));
+            out.write(le16((int) Math.min(entries, 0xFFFF)));
+            out.write(le16((int) Math.min(entries, 0xFFFF)));
+            out.write(le32(Math.min(cdSize, MAX32)));
+            out.write(le32(Math.min(cdOffset, MAX32)));
+            out.write(le16(0));
+        }
+
+        private static long dosTime(long millis) {
+            LocalDateTime t = LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+            if (t.getYear() < 1980) return (1 << 21) | (1 << 16);
+            return ((long) (t.getYear() - 1980) << 25) | ((long) t.getMonthValue() << 21) | ((long) t.getDayOfMonth() << 16)
+                    | ((long) t.getHour() << 11) | ((long) t.getMinute() << 5) | (t.getSecond() >> 1);
+        }
+
+        private static byte[] le16(int v) { return new byte[] { (byte) v, (byte) (v >>> 8) }; }
+
+        private static byte[] le32(long v) { return new byte[] { (byte) v, (byte) (v >>> 8), (byte) (v >>> 16), (byte) (v >>> 24) }; }
+
+        private static byte[] le64(long v) { return concat(le32(v), le32(v >>> 32)); }
+
+        private static byte[] concat(byte[]... parts) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            for (byte[] p : parts) bos.writeBytes(p);
+            return bos.toByteArray();
+        }
+    }
+
+    private static final class CountingOutputStream extends java.io.FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) { super(out); }
+
+        @Override
+        public void write(int b) throws IOException { out.write(b); count++; }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); count += len; }
+    }
+
+    private static final class NonClosingOutputStream extends java.io.FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) { super(out); }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+
+        @Override
+        public void close() throws IOException { flush(); }
+    }
+}
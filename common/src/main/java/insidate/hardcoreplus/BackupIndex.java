@@ -0,0 +1,173 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-disk catalog of the backups in a backup folder (hcp-index.tsv): file name, creation time,
+ * size and a running sequence number, plus the retired world's level-name, seed, run time, backup
+ * strategy and checksum. Everything is recorded once when a backup is made, so retention and
+ * /hcp backups never have to walk existing backups. Rows are appended; a later row for the same
+ * file replaces the earlier one, and retention compacts the file when it rewrites it.
+ */
+public final class BackupIndex {
+    private BackupIndex() {}
+
+    public static final String FILE_NAME = "hcp-index.tsv";
+    private static final String HEADER = "# file\tcreated\tbytes\tseq\tlevel-name\tseed\trun-millis\tstrategy\tchecksum";
+    public static final int PAGE_SIZE = 8;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ROOT).withZone(ZoneId.systemDefault());
+    // Catalog reads for commands, which are issued on the server thread
+    private static final ExecutorService READER = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hcp-index-", 0).factory());
+
+    /**
+     * file is the directory/archive/manifest name inside the backup folder. The world details are
+     * blank (runMillis -1) for backups found on disk rather than recorded by a rotation.
+     */
+    public record Entry(String file, long created, long bytes, long seq, String levelName, String seed, long runMillis, String strategy, String checksum) {
+        public Entry(String file, long created, long bytes, long seq) { this(file, created, bytes, seq, "", "", -1L, "", ""); }
+
+        Entry withSeq(long next) { return new Entry(file, created, bytes, next, levelName, seed, runMillis, strategy, checksum); }
+
+        // Backup name as configured, without the archive/manifest extension
+        public String name() {
+            for (BackupArchive.Format f : BackupArchive.Format.values()) {
+                if (!f.extension().isEmpty() && file.endsWith(f.extension())) return file.substring(0, file.length() - f.extension().length());
+            }
+            return file;
+        }
+    }
+
+    public static synchronized List<Entry> load(Path backupRoot) throws IOException {
+        Map<String, Entry> byFile = new LinkedHashMap<>();
+        Path index = backupRoot.resolve(FILE_NAME);
+        if (!Files.isRegularFile(index)) return new ArrayList<>();
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] f = line.split("\t", -1);
+            if (f.length < 4) continue;
+            // Indexes written before the world details were added have only the first four columns
+            try {
+                byFile.put(f[0], f.length < 9 ? new Entry(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]))
+                        : new Entry(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]), f[4], f[5], Long.parseLong(f[6]), f[7], f[8]));
+            } catch (NumberFormatException ignored) {}
+        }
+        List<Entry> out = new ArrayList<>(byFile.values());
+        out.sort(Comparator.comparingLong(Entry::seq));
+        return out;
+    }
+
+    // Append the entry for its file; a file already indexed keeps its sequence number, new ones get the next
+    public static synchronized Entry record(Path backupRoot, Entry details) throws IOException {
+        List<Entry> entries = load(backupRoot);
+        long seq = entries.stream().mapToLong(Entry::seq).max().orElse(0L) + 1;
+        for (Entry old : entries) if (old.file().equals(details.file())) seq = old.seq();
+        Entry e = details.withSeq(seq);
+        Files.createDirectories(backupRoot);
+        try (FileChannel ch = FileChannel.open(backupRoot.resolve(FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            StringBuilder sb = new StringBuilder();
+            if (size == 0) sb.append(HEADER).append('\n');
+            else {
+                // Terminate a torn last row so it cannot swallow this one
+                ByteBuffer last = ByteBuffer.allocate(1);
+                ch.read(last, size - 1);
+                if (last.get(0) != '\n') sb.append('\n');
+            }
+            row(sb, e);
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buf.hasRemaining()) size += ch.write(buf, size);
+        }
+        return e;
+    }
+
+    public static synchronized void save(Path backupRoot, List<Entry> entries) throws IOException {
+        StringBuilder sb = new StringBuilder(HEADER).append('\n');
+        for (Entry e : entries) row(sb, e);
+        Files.createDirectories(backupRoot);
+        Path index = backupRoot.resolve(FILE_NAME);
+        Path tmp = index.resolveSibling(FILE_NAME + ".tmp");
+        Files.writeString(tmp, sb.toString(), StandardCharsets.UTF_8);
+        Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** {@link #page} read off the calling thread; a read error becomes the single line. */
+    public static CompletableFuture<List<String>> pageAsync(Path backupRoot, int page) {
+        return CompletableFuture.supplyAsync(() -> {
+            try { return page(backupRoot, page); } catch (IOException e) { return List.of("Could not read the backup catalog: " + e.getMessage()); }
+        }, READER);
+    }
+
+    /** {@link #info} read off the calling thread; a missing backup or read error becomes the single line. */
+    public static CompletableFuture<List<String>> infoAsync(Path backupRoot, String name) {
+        return CompletableFuture.supplyAsync(() -> {
+            try { return info(backupRoot, name).orElse(List.of("No backup named '" + name + "' in the catalog.")); } catch (IOException e) { return List.of("Could not read the backup catalog: " + e.getMessage()); }
+        }, READER);
+    }
+
+    /** One page (from 1) of the catalog, newest first, for /hcp backups list. */
+    public static List<String> page(Path backupRoot, int page) throws IOException {
+        List<Entry> entries = load(backupRoot);
+        int pages = Math.max(1, (entries.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        int p = Math.max(1, Math.min(page, pages));
+        List<String> out = new ArrayList<>();
+        out.add(String.format(Locale.ROOT, "Backups in %s: %d (page %d/%d)", backupRoot.getFileName(), entries.size(), p, pages));
+        for (int i = entries.size() - 1 - (p - 1) * PAGE_SIZE; i >= 0 && i > entries.size() - 1 - p * PAGE_SIZE; i--) {
+            Entry e = entries.get(i);
+            out.add(String.format(Locale.ROOT, "#%d %s - %s, %s, %s", e.seq(), e.name(), or(e.levelName()), DATE.format(Instant.ofEpochMilli(e.created())), mib(e.bytes())));
+        }
+        return out;
+    }
+
+    /** Details of the backup with this file or backup name, for /hcp backups info. */
+    public static Optional<List<String>> info(Path backupRoot, String name) throws IOException {
+        for (Entry e : load(backupRoot)) {
+            if (!e.file().equals(name) && !e.name().equals(name)) continue;
+            List<String> out = new ArrayList<>();
+            out.add("Backup #" + e.seq() + ": " + e.file());
+            out.add("Level-name: " + or(e.levelName()) + ", seed: " + or(e.seed()));
+            out.add("Created: " + DATE.format(Instant.ofEpochMilli(e.created())) + ", run time: " + (e.runMillis() < 0 ? "?" : hours(e.runMillis())));
+            out.add("Size: " + mib(e.bytes()) + " (" + e.bytes() + " bytes), strategy: " + or(e.strategy()));
+            // Directory backups carry a prefixed listing checksum (see TreeOps.listingChecksum)
+            out.add("Checksum: " + (e.checksum().isEmpty() ? "none" : e.checksum().contains(":") ? e.checksum() : "sha256:" + e.checksum()));
+            return Optional.of(out);
+        }
+        return Optional.empty();
+    }
+
+    private static void row(StringBuilder sb, Entry e) {
+        sb.append(clean(e.file())).append('\t').append(e.created()).append('\t').append(e.bytes()).append('\t').append(e.seq())
+                .append('\t').append(clean(e.levelName())).append('\t').append(clean(e.seed())).append('\t').append(e.runMillis())
+                .append('\t').append(clean(e.strategy())).append('\t').append(clean(e.checksum())).append('\n');
+    }
+
+    private static String clean(String s) { return s.replace('\t', ' ').replace('\n', ' '); }
+
+    private static String or(String s) { return s.isEmpty() ? "?" : s; }
+
+    private static String mib(long bytes) { return String.format(Locale.ROOT, "%.1f MiB", bytes / 1048576.0); }
+
+    private static String hours(long millis) {
+        long seconds = millis / 1000;
+        return String.format(Locale.ROOT, "%02d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+}
@@ -0,0 +1,415 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deferred old-world rotation. At startup the old world is only renamed into hc_pending/ (same
+ * filesystem, O(1)); a background worker started after SERVER_STARTED then moves/copies it to the
+ * backup folder or deletes it. Every step is recorded in the rotation's journal
+ * (hc_pending/&lt;id&gt;.journal), so an interrupted rotation resumes from its last completed step.
+ */
+public final class BackupQueue {
+    private BackupQueue() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    public static final String DIR_NAME = "hc_pending";
+    // Progress files written by older versions; converted to journals by the worker
+    private static final String LEGACY_JOB_SUFFIX = ".job";
+    private static final String MANIFEST_SUFFIX = ".files";
+    // Files copied between two journal records
+    private static final int COPY_BATCH = 256;
+    // moved() start time when finishing a move recorded before a crash
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+    private static final DateTimeFormatter TS_FORMAT = DateTimeFormatter.ofPattern("uuuuMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private static ExecutorService executor;
+
+    /**
+     * Apply the rotation recorded in hc_rotation.journal: rename the old world into hc_pending/ and
+     * hand the journal to the worker. A rotation whose server.properties edit never landed is
+     * cancelled instead. Returns true when a new world is starting because of a rotation.
+     */
+    public static boolean stage(Path runDir) throws IOException {
+        Path active = RotationJournal.active(runDir);
+        Optional<RotationJournal.Entry> last = RotationJournal.activeEntry(runDir);
+        if (last.isEmpty()) {
+            if (Files.exists(active)) { LOGGER.warn("{} has no readable record; ignoring it", active.toAbsolutePath()); Files.deleteIfExists(active); }
+            return false;
+        }
+        RotationJournal.Entry e = last.get();
+        switch (e.phase()) {
+            case DONE, CANCELLED -> { Files.deleteIfExists(active); return false; }
+            case PREPARED, STOPPED -> {
+                String oldName = e.get("old-level-name");
+                if (oldName == null || oldName.equals(ServerPropertiesStore.levelName(runDir))) {
+                    LOGGER.warn("Rotation {} was {} but server.properties still names '{}'; cancelling it", e.get("id"), e.describe(), oldName);
+                    RotationJournal.cancel(runDir);
+                    return false;
+                }
+                e = stageWorld(runDir, active, e);
+            }
+            default -> LOGGER.info("Rotation {} was interrupted after '{}'; handing it to the backup worker", e.get("id"), e.describe());
+        }
+        Path pending = runDir.resolve(DIR_NAME);
+        Files.createDirectories(pending);
+        RotationJournal.move(active, pending.resolve(e.get("id") + RotationJournal.EXTENSION));
+        return true;
+    }
+
+    // Decide what happens to the old world, rename it and record MOVED
+    private static RotationJournal.Entry stageWorld(Path runDir, Path active, RotationJournal.Entry e) throws IOException {
+        String levelName = e.get("old-level-name");
+        String id = e.get("id");
+        Path worldDir = runDir.resolve(levelName);
+        Path staged = runDir.resolve(DIR_NAME).resolve(id);
+        Files.createDirectories(staged.getParent());
+
+        Map<String, String> job = new LinkedHashMap<>();
+        job.put("time", Long.toString(System.currentTimeMillis()));
+        ConfigSnapshot cfg = ConfigManager.current();
+        if (cfg.backupOldWorlds() && !cfg.deleteInsteadOfBackup()) {
+            String ts = TS_FORMAT.format(Instant.now());
+            String backupName = cfg.backupNameFormat().replace("%name%", levelName).replace("%ts%", ts).replace("%id%", UUID.randomUUID().toString().substring(0, 8));
+            job.put("action", "backup");
+            job.put("backup-folder", cfg.backupFolderName());
+            job.put("backup-name", backupName);
+            job.put("format", BackupArchive.Format.fromConfig(cfg).name());
+        } else {
+            job.put("action", "delete");
+        }
+
+        JfrEvents.RotationPhase ev = JfrEvents.phase("stage", levelName);
+        ev.path = staged.toString();
+        ev.paths = 1;
+        // A previous start may have renamed the world but died before recording it
+        String source = DIR_NAME + "/" + id;
+        if (Files.exists(worldDir) && !Files.exists(staged)) {
+            try {
+                Files.move(worldDir, staged, StandardCopyOption.ATOMIC_MOVE);
+                RotationJournal.syncDir(runDir);
+            } catch (IOException ex) {
+                ev.failures = 1;
+                LOGGER.info("Could not stage old world (files still locked?); the worker will process it in place: {}", ex.toString());
+                source = levelName;
+            }
+        }
+        ev.commit();
+        job.put("source", source);
+        e = RotationJournal.append(active, e.with(RotationJournal.Phase.MOVED, job));
+        LOGGER.info("Staged old world '{}' as {} ({} after startup)", levelName, runDir.resolve(source).toAbsolutePath(), job.get("action"));
+        return e;
+    }
+
+    // Start the worker for all pending rotations (including ones left over from an interrupted run)
+    public static synchronized void start(Path runDir) {
+        if (!Files.isDirectory(runDir.resolve(DIR_NAME)) && !Files.isDirectory(backupRoot(runDir))) return;
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "hcp-backup");
+                t.setDaemon(true);
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                return t;
+            });
+        }
+        executor.execute(() -> drain(runDir));
+    }
+
+    public static int pendingCount(Path runDir) {
+        Path pending = runDir.resolve(DIR_NAME);
+        return list(pending, "*" + RotationJournal.EXTENSION).size() + list(pending, "*" + LEGACY_JOB_SUFFIX).size();
+    }
+
+    private static void drain(Path runDir) {
+        Path pending = runDir.resolve(DIR_NAME);
+        for (Path jobFile : list(pending, "*" + LEGACY_JOB_SUFFIX)) {
+            try { adoptLegacyJob(pending, jobFile); } catch (IOException e) { LOGGER.warn("Could not convert backup job {}; it will be retried on next start", jobFile.getFileName(), e); }
+        }
+        for (Path journal : list(pending, "*" + RotationJournal.EXTENSION)) {
+            try {
+                resume(runDir, journal);
+            } catch (Throwable t) {
+                LOGGER.warn("Rotation {} failed; it will be resumed on next start", journal.getFileName(), t);
+            }
+        }
+        BackupRetention.enforce(backupRoot(runDir));
+    }
+
+    // Step the rotation through its remaining phases; each step starts from the last journal record
+    private static void resume(Path runDir, Path journal) throws IOException {
+        Optional<RotationJournal.Entry> last = RotationJournal.last(journal);
+        if (last.isEmpty()) { LOGGER.warn("Rotation journal {} has no readable record; leaving it for inspection", journal.toAbsolutePath()); return; }
+        RotationJournal.Entry e = last.get();
+        if (e.phase() != RotationJournal.Phase.MOVED) LOGGER.info("Resuming rotation {} after '{}'", e.get("id"), e.describe());
+        Path source = runDir.resolve(e.get("source", DIR_NAME + "/" + e.get("id")));
+        Path manifest = journal.resolveSibling(e.get("id") + MANIFEST_SUFFIX);
+        while (e.phase() != RotationJournal.Phase.DONE && e.phase() != RotationJournal.Phase.CANCELLED) {
+            e = switch (e.phase()) {
+                case MOVED -> transfer(runDir, journal, manifest, source, e);
+                case COPIED -> e.getLong("copied") < e.getLong("total") ? copy(runDir, journal, manifest, source, e) : finish(runDir, journal, source, e);
+                case DELETED -> RotationJournal.append(journal, e.with(RotationJournal.Phase.DONE, Map.of()));
+                default -> throw new IllegalStateException("Rotation " + e.get("id") + " is " + e.describe() + " but was already staged");
+            };
+        }
+        Files.deleteIfExists(manifest);
+        Files.deleteIfExists(journal);
+    }
+
+    // First step after staging: move, snapshot, archive or delete the old world
+    private static RotationJournal.Entry transfer(Path runDir, Path journal, Path manifest, Path source, RotationJournal.Entry e) throws IOException {
+        if (!Files.exists(source)) {
+            // A crash between the move and its DONE record: the backup is complete but not indexed yet
+            Path movedTarget = "backup".equals(e.get("action")) && e.get("backup-name") != null ? backupRoot(runDir, e).resolve(e.get("backup-name")) : null;
+            if (movedTarget != null && Files.isDirectory(movedTarget, LinkOption.NOFOLLOW_LINKS)) return moved(journal, backupRoot(runDir, e), movedTarget, e, NOT_TIMED);
+            LOGGER.info("Old world '{}' is already gone; nothing left to do", e.get("old-level-name"));
+            return RotationJournal.append(journal, e.with(RotationJournal.Phase.DONE, Map.of()));
+        }
+        if (!"backup".equals(e.get("action"))) {
+            deleteTree(source, e);
+            LOGGER.info("Deleted old world '{}'", e.get("old-level-name"));
+            return RotationJournal.append(journal, e.with(RotationJournal.Phase.DELETED, Map.of()));
+        }
+        Path backupRoot = backupRoot(runDir, e);
+        Files.createDirectories(backupRoot);
+        String backupName = e.get("backup-name");
+        BackupArchive.Format format = BackupArchive.Format.valueOf(e.get("format", BackupArchive.Format.DIRECTORY.name()));
+        long t0 = System.nanoTime();
+        if (format == BackupArchive.Format.DEDUP) {
+            // Only content missing from the store is written, so redoing an interrupted store is cheap
+            JfrEvents.RotationPhase ev = JfrEvents.phase("dedup", e.get("old-level-name"));
+            DedupStore.Result r = DedupStore.store(source, backupRoot, backupName, BackupQueue::skipSessionLock, TreeOps.parallelism());
+            Metrics.COPY_SECONDS.observeSince(t0);
+            Metrics.COPY_BYTES.add(r.newBytes());
+            commit(ev, backupRoot.resolve(backupName + DedupStore.MANIFEST_EXT), r.newBytes(), r.files(), 0);
+            LOGGER.info("Stored old world as {}{} ({} files, {} new objects, {} of {} bytes written)", backupName, DedupStore.MANIFEST_EXT, r.files(), r.newObjects(), r.newBytes(), r.bytes());
+            // Only newly stored content counts against the size quota
+            return copied(journal, e, Snapshot.Strategy.DEDUP, backupName + DedupStore.MANIFEST_EXT, r.files(), r.newBytes(), r.manifestSha256());
+        }
+        if (format != BackupArchive.Format.DIRECTORY) {
+            // Archives are rewritten from scratch on resume (the .part file is discarded)
+            Path archive = backupRoot.resolve(backupName + format.extension());
+            JfrEvents.RotationPhase ev = JfrEvents.phase("archive", e.get("old-level-name"));
+            BackupArchive.Result r = BackupArchive.write(source, archive, format, BackupQueue::skipSessionLock);
+            Metrics.COPY_SECONDS.observeSince(t0);
+            Metrics.COPY_BYTES.add(r.archiveBytes());
+            commit(ev, archive, r.archiveBytes(), r.files(), 0);
+            LOGGER.info("Archived old world to {} ({} files, {} -> {} bytes)", archive.toAbsolutePath(), r.files(), r.bytes(), r.archiveBytes());
+            return copied(journal, e, Snapshot.Strategy.ARCHIVE, archive.getFileName().toString(), r.files(), r.archiveBytes(), r.sha256());
+        }
+
+        Path backupTarget = backupRoot.resolve(backupName);
+        // Anything already there was left by a move, snapshot or copy that never reached the journal.
+        // It may hardlink the staged files, so copying over it would truncate the only other copy.
+        if (Files.exists(backupTarget, LinkOption.NOFOLLOW_LINKS)) {
+            LOGGER.info("Removing unfinished backup {} before retrying", backupTarget.toAbsolutePath());
+            TreeOps.deleteTree(backupTarget);
+        }
+        try {
+            Files.move(source, backupTarget, StandardCopyOption.ATOMIC_MOVE);
+            return moved(journal, backupRoot, backupTarget, e, t0);
+        } catch (IOException ex) {
+            LOGGER.info("Atomic move failed; attempting non-atomic move (expected on Windows if locked): {}", ex.toString());
+            try {
+                Files.move(source, backupTarget);
+                return moved(journal, backupRoot, backupTarget, e, t0);
+            } catch (IOException ex2) {
+                LOGGER.info("Non-atomic move failed; will attempt copy fallback: {}", ex2.toString());
+                // A failed cross-device move can leave a partial target behind
+                TreeOps.deleteTree(backupTarget);
+            }
+        }
+        // The source is deleted right after, so hardlinks never share data with a live world
+        JfrEvents.RotationPhase ev = JfrEvents.phase("snapshot", e.get("old-level-name"));
+        Optional<Snapshot.Strategy> linked = Snapshot.link(source, backupTarget, true, BackupQueue::skipSessionLock);
+        if (linked.isPresent()) {
+            TreeOps.Result size = TreeOps.measure(backupTarget);
+            Metrics.COPY_SECONDS.observeSince(t0);
+            commit(ev, backupTarget, size.bytes(), size.files(), 0);
+            LOGGER.info("Snapshotted old world to {} ({})", backupTarget.toAbsolutePath(), linked.get());
+            return copied(journal, e, linked.get(), backupName, size.files(), size.bytes(), null);
+        }
+        // Byte copy from a fixed file list, so a resumed copy continues at the last recorded file
+        List<String> files = TreeOps.listTree(source, BackupQueue::skipSessionLock);
+        Files.createDirectories(backupTarget);
+        writeManifest(manifest, files);
+        Map<String, String> start = new LinkedHashMap<>();
+        start.put("strategy", Snapshot.Strategy.COPY.name());
+        start.put("backup-file", backupName);
+        start.put("copied", "0");
+        start.put("total", Integer.toString(files.size()));
+        start.put("bytes", "0");
+        return RotationJournal.append(journal, e.with(RotationJournal.Phase.COPIED, start));
+    }
+
+    // Copy the rest of the manifest in batches, recording "copied N/M" after each one
+    private static RotationJournal.Entry copy(Path runDir, Path journal, Path manifest, Path source, RotationJournal.Entry e) throws IOException {
+        if (!Files.exists(manifest)) {
+            LOGGER.info("Copy manifest for rotation {} is missing; restarting its copy", e.get("id"));
+            return transfer(runDir, journal, manifest, source, e.with(RotationJournal.Phase.MOVED, Map.of()));
+        }
+        List<String> files = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        Path backupTarget = backupRoot(runDir, e).resolve(e.get("backup-name"));
+        long t0 = System.nanoTime();
+        JfrEvents.RotationPhase ev = JfrEvents.phase("snapshot", e.get("old-level-name"));
+        long bytes = e.getLong("bytes");
+        long before = bytes;
+        long failures = 0;
+        for (int from = (int) e.getLong("copied"); from < files.size(); ) {
+            int to = Math.min(files.size(), from + COPY_BATCH);
+            TreeOps.Result r = TreeOps.copyFiles(source, backupTarget, files.subList(from, to), null);
+            bytes += r.bytes();
+            failures += r.failures();
+            e = RotationJournal.append(journal, e.with(RotationJournal.Phase.COPIED, Map.of("copied", Integer.toString(to), "bytes", Long.toString(bytes))));
+            from = to;
+        }
+        Metrics.COPY_SECONDS.observeSince(t0);
+        Metrics.COPY_BYTES.add(bytes - before);
+        commit(ev, backupTarget, bytes - before, files.size(), failures);
+        LOGGER.info("Copied {} files and directories ({} bytes) with {} threads{}", files.size(), bytes, TreeOps.parallelism(), failures > 0 ? ", " + failures + " failures" : "");
+        return e;
+    }
+
+    // Backup complete: index it, then delete the staged original
+    private static RotationJournal.Entry finish(Path runDir, Path journal, Path source, RotationJournal.Entry e) throws IOException {
+        String backupFile = e.get("backup-file");
+        if (backupFile != null) index(backupRoot(runDir, e), backupFile, e, e.getLong("bytes"), e.get("strategy", ""));
+        deleteTree(source, e);
+        LOGGER.info("Backed up old world '{}' as {} ({}) and deleted original", e.get("old-level-name"), backupFile, e.get("strategy", "?"));
+        return RotationJournal.append(journal, e.with(RotationJournal.Phase.DELETED, Map.of()));
+    }
+
+    private static RotationJournal.Entry copied(Path journal, RotationJournal.Entry e, Snapshot.Strategy strategy, String backupFile, long files, long bytes, String checksum) throws IOException {
+        Map<String, String> done = new LinkedHashMap<>();
+        done.put("strategy", strategy.name());
+        done.put("backup-file", backupFile);
+        done.put("copied", Long.toString(files));
+        done.put("total", Long.toString(files));
+        done.put("bytes", Long.toString(bytes));
+        if (checksum != null) done.put("checksum", checksum);
+        return RotationJournal.append(journal, e.with(RotationJournal.Phase.COPIED, done));
+    }
+
+    private static RotationJournal.Entry moved(Path journal, Path backupRoot, Path backupTarget, RotationJournal.Entry e, long startNanos) throws IOException {
+        LOGGER.info("Moved old world to {}", backupTarget.toAbsolutePath());
+        if (startNanos != NOT_TIMED) Metrics.MOVE_SECONDS.observeSince(startNanos);
+        JfrEvents.RotationPhase ev = JfrEvents.phase("move", e.get("old-level-name"));
+        TreeOps.Result size = TreeOps.measure(backupTarget);
+        Metrics.MOVE_BYTES.add(size.bytes());
+        index(backupRoot, backupTarget.getFileName().toString(), e, size.bytes(), Snapshot.Strategy.MOVE.name());
+        commit(ev, backupTarget, size.bytes(), size.files(), 0);
+        // Nothing is left to delete after a move
+        return RotationJournal.append(journal, e.with(RotationJournal.Phase.DONE, Map.of("strategy", Snapshot.Strategy.MOVE.name(), "backup-file", backupTarget.getFileName().toString())));
+    }
+
+    // Older versions kept per-job state in <job>.job; carry it over as a journal at the matching phase
+    private static void adoptLegacyJob(Path pending, Path jobFile) throws IOException {
+        String name = jobFile.getFileName().toString();
+        String id = name.substring(0, name.length() - LEGACY_JOB_SUFFIX.length());
+        Path journal = pending.resolve(id + RotationJournal.EXTENSION);
+        if (!Files.exists(journal)) {
+            Properties job = new Properties();
+            try (var r = Files.newBufferedReader(jobFile)) { job.load(r); }
+            Map<String, String> data = new LinkedHashMap<>();
+            for (String key : job.stringPropertyNames()) data.put(key, job.getProperty(key));
+            data.remove("state");
+            data.remove("copied");
+            data.put("id", id);
+            data.put("old-level-name", job.getProperty("level-name", id));
+            data.put("source", DIR_NAME + "/" + id);
+            // "deleting" means the backup was complete (and indexed); anything earlier starts the transfer again
+            RotationJournal.Phase phase = "deleting".equals(job.getProperty("state")) ? RotationJournal.Phase.COPIED : RotationJournal.Phase.MOVED;
+            RotationJournal.create(journal, new RotationJournal.Entry(phase, data));
+        }
+        Files.deleteIfExists(jobFile);
+    }
+
+    /** The configured backup folder (backup_folder_name). */
+    public static Path backupRoot(Path runDir) {
+        return runDir.resolve(ConfigManager.current().backupFolderName());
+    }
+
+    private static Path backupRoot(Path runDir, RotationJournal.Entry e) { return runDir.resolve(e.get("backup-folder", "Old Worlds")); }
+
+    private static List<Path> list(Path dir, String glob) {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, glob)) {
+            for (Path p : ds) out.add(p);
+        } catch (IOException ignored) {}
+        out.sort(Comparator.comparing(p -> p.getFileName().toString()));
+        return out;
+    }
+
+    // Forced to disk before the "copied 0/M" record that refers to it
+    private static void writeManifest(Path manifest, List<String> files) throws IOException {
+        Path tmp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        Files.write(tmp, files, StandardCharsets.UTF_8);
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) { ch.force(true); }
+        Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        RotationJournal.syncDir(manifest.getParent());
+    }
+
+    private static void commit(JfrEvents.RotationPhase ev, Path path, long bytes, long paths, long failures) {
+        if (!ev.shouldCommit()) return;
+        ev.path = path.toString();
+        ev.bytes = bytes;
+        ev.paths = paths;
+        ev.failures = failures;
+        ev.commit();
+    }
+
+    // Index failures only cost a re-measure (without world details) during the next retention pass; recording a file again replaces its entry
+    private static void index(Path backupRoot, String file, RotationJournal.Entry e, long bytes, String strategy) {
+        long created = e.getLong("time") > 0 ? e.getLong("time") : System.currentTimeMillis();
+        // Run time of the retired world, from its start as recorded in hc_world_start.flag at prepare time
+        long run = e.getLong("world-start") > 0 ? Math.max(0L, created - e.getLong("world-start")) : -1L;
+        String seed = e.get("world-seed", e.get("old-seed", ""));
+        // Archives and dedup manifests carry a content checksum; directory backups get a listing checksum
+        String checksum = e.get("checksum", "");
+        Path target = backupRoot.resolve(file);
+        if (checksum.isEmpty() && Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+            try { checksum = TreeOps.listingChecksum(target); } catch (IOException ex) { LOGGER.info("Could not checksum backup {}: {}", file, ex.toString()); }
+        }
+        BackupIndex.Entry entry = new BackupIndex.Entry(file, created, bytes, 0L, e.get("old-level-name", ""), seed, run, strategy, checksum);
+        try { BackupIndex.record(backupRoot, entry); } catch (IOException ex) { LOGGER.info("Could not update backup index: {}", ex.toString()); }
+    }
+
+    private static boolean skipSessionLock(Path p) {
+        if (!p.getFileName().toString().equalsIgnoreCase("session.lock")) return false;
+        LOGGER.info("Skipping locked file during backup copy: {}", p);
+        return true;
+    }
+
+    private static void deleteTree(Path dir, RotationJournal.Entry e) {
+        long t0 = System.nanoTime();
+        JfrEvents.RotationPhase ev = JfrEvents.phase("delete", e.get("old-level-name"));
+        TreeOps.Result r = TreeOps.deleteTree(dir);
+        Metrics.DELETE_SECONDS.observeSince(t0);
+        Metrics.DELETE_BYTES.add(r.bytes());
+        commit(ev, dir, r.bytes(), r.files(), r.failures());
+        if (r.failures() > 0) LOGGER.info("Deleted {} files under {} ({} could not be removed)", r.files(), dir, r.failures());
+    }
+}
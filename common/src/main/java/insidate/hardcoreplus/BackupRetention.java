@@ -0,0 +1,103 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prunes the backup folder by count, total size, age and keep-every-Nth, using BackupIndex sizes.
+ * Runs on the backup worker thread after pending jobs, so it never competes with startup.
+ */
+public final class BackupRetention {
+    private BackupRetention() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+
+    public static void enforce(Path backupRoot) {
+        int maxCount = ConfigManager.getInt("retention_max_count", 0);
+        long maxBytes = ConfigManager.getInt("retention_max_total_mb", 0) * 1024L * 1024L;
+        int maxAgeDays = ConfigManager.getInt("retention_max_age_days", 0);
+        int keepNth = ConfigManager.getInt("retention_keep_every_nth", 0);
+        if (maxCount <= 0 && maxBytes <= 0 && maxAgeDays <= 0) return;
+        if (!Files.isDirectory(backupRoot)) return;
+        try {
+            List<BackupIndex.Entry> entries = reconcile(backupRoot);
+            long total = entries.stream().mapToLong(BackupIndex.Entry::bytes).sum();
+            long cutoff = maxAgeDays > 0 ? System.currentTimeMillis() - maxAgeDays * 86_400_000L : Long.MIN_VALUE;
+            int count = entries.size();
+            List<BackupIndex.Entry> kept = new ArrayList<>();
+            List<BackupIndex.Entry> evicted = new ArrayList<>();
+            // Oldest first; the newest backup and every keep-every-Nth one are never evicted
+            for (int i = 0; i < entries.size(); i++) {
+                BackupIndex.Entry e = entries.get(i);
+                boolean newest = i == entries.size() - 1;
+                boolean pinned = keepNth > 0 && e.seq() % keepNth == 0;
+                boolean overCount = maxCount > 0 && count > maxCount;
+                boolean overBytes = maxBytes > 0 && total > maxBytes;
+                boolean tooOld = e.created() < cutoff;
+                if (!newest && !pinned && (overCount || overBytes || tooOld)) {
+                    evicted.add(e);
+                    count--;
+                    total -= e.bytes();
+                } else {
+                    kept.add(e);
+                }
+            }
+            if (evicted.isEmpty()) return;
+            JfrEvents.RotationPhase ev = JfrEvents.phase("retention", null);
+            ev.path = backupRoot.toString();
+            boolean gc = false;
+            for (BackupIndex.Entry e : evicted) {
+                Path p = backupRoot.resolve(e.file());
+                TreeOps.Result r = TreeOps.deleteTree(p);
+                ev.bytes += r.bytes();
+                ev.paths += r.files();
+                ev.failures += r.failures();
+                if (e.file().endsWith(DedupStore.MANIFEST_EXT)) gc = true;
+                LOGGER.info("Retention removed backup {} ({} bytes)", e.file(), e.bytes());
+            }
+            BackupIndex.save(backupRoot, kept);
+            ev.commit();
+            if (gc) LOGGER.info("Dedup store gc freed {} bytes", DedupStore.gc(backupRoot));
+        } catch (Throwable t) {
+            LOGGER.warn("Backup retention failed", t);
+        }
+    }
+
+    // Drop index entries whose backup is gone and measure (once) backups the index does not know yet; one index write
+    private static List<BackupIndex.Entry> reconcile(Path backupRoot) throws IOException {
+        List<BackupIndex.Entry> entries = BackupIndex.load(backupRoot);
+        List<BackupIndex.Entry> present = new ArrayList<>();
+        Set<String> known = new HashSet<>();
+        long seq = 0;
+        for (BackupIndex.Entry e : entries) {
+            seq = Math.max(seq, e.seq());
+            if (Files.exists(backupRoot.resolve(e.file()), LinkOption.NOFOLLOW_LINKS)) { present.add(e); known.add(e.file()); }
+        }
+        List<BackupIndex.Entry> found = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(backupRoot)) {
+            for (Path p : ds) {
+                String n = p.getFileName().toString();
+                if (n.startsWith(".") || n.startsWith("hcp-index") || n.endsWith(".part") || known.contains(n)) continue;
+                long bytes = Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS) ? TreeOps.sizeOf(p) : Files.size(p);
+                found.add(new BackupIndex.Entry(n, Files.getLastModifiedTime(p).toMillis(), bytes, 0L));
+            }
+        }
+        if (present.size() == entries.size() && found.isEmpty()) return present;
+        // Unknown backups are numbered oldest first, after everything already indexed
+        found.sort(Comparator.comparingLong(BackupIndex.Entry::created));
+        for (BackupIndex.Entry e : found) present.add(new BackupIndex.Entry(e.file(), e.created(), e.bytes(), ++seq));
+        BackupIndex.save(backupRoot, present);
+        return present;
+    }
+}
@@ -1,23 +1,33 @@
 package insidate.hardcoreplus;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Loader-agnostic config manager that reads/writes config/hardcoreplus.properties
- * under the current working directory (server root/run dir).
+ * under the current working directory (server root/run dir). Readers get an immutable
+ * ConfigSnapshot; the file is only re-read when a WatchService reports a change or on /hcp reload.
  */
 public class ConfigManager {
     private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
-    private static Properties props = new Properties();
     private static Path configPath;
+    private static String lastContent;
+    private static Thread watcher;
 
     // Keys and comments
     private static final Map<String, String> KEY_COMMENTS = new LinkedHashMap<>();
@@ -26,45 +36,127 @@ public class ConfigManager {
         KEY_COMMENTS.put("delete_instead_of_backup", "If true, deletes old worlds instead of backing up (overrides backup_old_worlds)");
         KEY_COMMENTS.put("backup_folder_name", "Name of the folder under run directory where backups are stored");
         KEY_COMMENTS.put("backup_name_format", "Format for backup folder name; tokens: %name%, %ts%, %id%");
+        KEY_COMMENTS.put("backup_format", "directory, zip, tar.gz or dedup (shared content-addressed store; the extension is appended to backup_name_format)");
+        KEY_COMMENTS.put("backup_compression_level", "Deflate level 0-9 for zip/tar.gz backups");
+        KEY_COMMENTS.put("retention_max_count", "Keep at most this many backups in backup_folder_name (0 = unlimited)");
+        KEY_COMMENTS.put("retention_max_total_mb", "Keep backups under this total size in MB (0 = unlimited)");
+        KEY_COMMENTS.put("retention_max_age_days", "Remove backups older than this many days (0 = never)");
+        KEY_COMMENTS.put("retention_keep_every_nth", "Never remove every Nth backup (0 = off), e.g. 10 keeps backups #10, #20, ...");
         KEY_COMMENTS.put("new_level_name_format", "Format for the new level-name; tokens: %name%, %time%, %id%");
         KEY_COMMENTS.put("time_format", "Time format pattern for %time% (java.time DateTimeFormatter)");
         KEY_COMMENTS.put("force_new_seed", "If true, writes a new level-seed to server.properties on rotation");
         KEY_COMMENTS.put("seed_mode", "random or custom");
         KEY_COMMENTS.put("custom_seed", "Custom seed to use when seed_mode=custom");
         KEY_COMMENTS.put("restart_delay_seconds", "Seconds to wait before stopping the server after a reset request");
+        KEY_COMMENTS.put("countdown_display", "How the restart countdown is shown: bossbar, actionbar or none");
+        KEY_COMMENTS.put("countdown_announce_seconds", "Seconds left at which the countdown is also announced in chat (comma separated)");
+        KEY_COMMENTS.put("countdown_flush_ms_per_tick", "Milliseconds per tick spent saving dirty chunks during the restart countdown, so the final stop flushes less (0 disables)");
+        KEY_COMMENTS.put("masskill_per_tick", "Players killed per server tick during a mass-kill (0 = all in one tick)");
+        KEY_COMMENTS.put("masskill_suppress_drops", "If true, mass-killed players drop no items or experience");
         KEY_COMMENTS.put("auto_restart", "Whether an external wrapper should restart the server after stop (informational)");
+        KEY_COMMENTS.put("discard_on_stop", "If true and old worlds are deleted (not backed up), skip saving chunks, players and level.dat on the rotation stop");
+        KEY_COMMENTS.put("warmup_radius_chunks", "After a rotation, pre-generate chunks within this radius of world spawn before players arrive (0 disables)");
+        KEY_COMMENTS.put("warmup_ms_per_tick", "Milliseconds per server tick spent on the spawn warm-up (checked between chunks, so one slow chunk can overrun it)");
+        KEY_COMMENTS.put("warmup_hold_joins", "If true, non-op players are refused with a short message until the warm-up is done");
+        KEY_COMMENTS.put("template_radius_chunks", "With seed_mode=custom, keep a pristine copy of spawn plus this many chunks under hc_templates/ and clone it on rotation instead of generating the world again (0 disables)");
+        KEY_COMMENTS.put("seed_scout_queue", "With seed_mode=random, keep this many pre-screened seeds ready in hc_seed_queue.txt (0 disables)");
+        KEY_COMMENTS.put("seed_scout_threads", "Threads used to screen candidate seeds (0 = auto, half the cores minus one)");
+        KEY_COMMENTS.put("seed_scout_allow_spawn_biomes", "Spawn biomes or #tags a seed must start in (comma separated, blank allows any)");
+        KEY_COMMENTS.put("seed_scout_deny_spawn_biomes", "Spawn biomes or #tags that reject a seed (comma separated)");
+        KEY_COMMENTS.put("seed_scout_max_village_chunks", "Reject seeds without a village this many chunks from spawn (0 disables)");
+        KEY_COMMENTS.put("seed_scout_min_land_percent", "Reject seeds whose area around spawn is less than this percent land");
+        KEY_COMMENTS.put("seed_scout_land_radius_blocks", "Radius around spawn sampled for the land ratio");
+        KEY_COMMENTS.put("seed_scout_max_candidates", "Candidates screened per refill before giving up until the next rotation");
+        KEY_COMMENTS.put("io_parallelism", "Threads used to copy/delete world folders (0 = auto, up to 4)");
+        KEY_COMMENTS.put("metrics_export_seconds", "How often metrics are persisted and the Prometheus textfile is rewritten (0 disables)");
+        KEY_COMMENTS.put("metrics_textfile", "Prometheus textfile path relative to the run directory, e.g. for node_exporter's textfile collector (blank disables)");
+        KEY_COMMENTS.put("snapshot_backups", "When a backup cannot be moved, try a reflink (btrfs/XFS) or hardlinks before a full byte copy");
     }
+    // Declared after KEY_COMMENTS, which orders its values
+    private static volatile ConfigSnapshot snapshot = new ConfigSnapshot(defaults());
 
     public static void load() {
+        load(java.nio.file.Path.of("").toAbsolutePath().normalize().resolve("config"));
+    }
+
+    // Package-private so benchmarks can point it at a scratch directory
+    static void load(Path configDir) {
         try {
-            Path runDir = java.nio.file.Path.of("").toAbsolutePath().normalize();
-            Path configDir = runDir.resolve("config");
             try { if (!Files.exists(configDir)) Files.createDirectories(configDir); } catch (IOException ignored) {}
 
             // Use config/hardcoreplus.properties by default (no legacy migration)
             configPath = configDir.resolve("hardcoreplus.properties");
-
-            if (!Files.exists(configPath)) {
-                props = defaults();
-                saveFormatted(props);
-            } else {
-                props = new Properties();
-                try (var in = Files.newInputStream(configPath)) { props.load(in); }
-                // ensure defaults exist
-                Properties def = defaults();
-                for (String k : def.stringPropertyNames()) if (!props.containsKey(k)) props.setProperty(k, def.getProperty(k));
-                saveFormatted(props);
-            }
+            refresh(true);
         } catch (IOException e) {
             LOGGER.error("Failed to load config", e);
         }
+        startWatcher();
+    }
+
+    // Explicit reload (/hcp reload); the watcher normally picks up edits on its own
+    public static void reload() {
+        try { if (configPath == null) load(); else refresh(true); } catch (IOException e) { LOGGER.error("Failed to reload config", e); }
+    }
+
+    public static ConfigSnapshot current() { return snapshot; }
+
+    public static String get(String key) { return snapshot.get(key); }
+    public static boolean getBoolean(String key) { return snapshot.getBoolean(key); }
+    public static int getInt(String key, int def) { return snapshot.getInt(key, def); }
+
+    // Re-parse and publish; unless forced, unchanged file content is skipped. Writes only when the formatted file differs.
+    private static synchronized void refresh(boolean force) throws IOException {
+        String content = Files.exists(configPath) ? Files.readString(configPath) : "";
+        if (!force && content.equals(lastContent)) return;
+        JfrEvents.ConfigLoad ev = new JfrEvents.ConfigLoad();
+        ev.begin();
+        Properties props = new Properties();
+        props.load(new StringReader(content));
+        // ensure defaults exist
+        Properties def = defaults();
+        for (String k : def.stringPropertyNames()) if (!props.containsKey(k)) props.setProperty(k, def.getProperty(k));
+        String formatted = format(props);
+        if (!formatted.equals(content)) {
+            try { Files.createDirectories(configPath.getParent()); } catch (IOException ignored) {}
+            Files.writeString(configPath, formatted);
+            ev.written = true;
+        }
+        lastContent = formatted;
+        snapshot = new ConfigSnapshot(props);
+        ev.path = configPath.toString();
+        ev.bytes = formatted.length();
+        ev.commit();
     }
 
-    public static void reload() { load(); }
+    private static synchronized void startWatcher() {
+        if (watcher != null || configPath == null) return;
+        WatchService ws;
+        try {
+            ws = configPath.getFileSystem().newWatchService();
+            configPath.getParent().register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.info("Config file watching unavailable; use /hcp reload after edits: {}", e.toString());
+            return;
+        }
+        watcher = new Thread(() -> watch(ws), "hcp-config-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
 
-    public static String get(String key) { return props.getProperty(key); }
-    public static boolean getBoolean(String key) { return Boolean.parseBoolean(props.getProperty(key, "false")); }
-    public static int getInt(String key, int def) { try { return Integer.parseInt(props.getProperty(key, Integer.toString(def))); } catch (NumberFormatException e) { return def; } }
+    private static void watch(WatchService ws) {
+        String name = configPath.getFileName().toString();
+        try {
+            while (true) {
+                WatchKey key = ws.take();
+                boolean ours = key.pollEvents().stream().anyMatch(ev -> name.equals(String.valueOf(ev.context())));
+                key.reset();
+                if (!ours) continue;
+                // Editors often write in several steps; let them finish
+                Thread.sleep(200L);
+                try { refresh(false); } catch (IOException | RuntimeException e) { LOGGER.warn("Failed to reload changed config", e); }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {}
+    }
 
     private static Properties defaults() {
         Properties p = new Properties();
@@ -72,17 +164,53 @@ public class ConfigManager {
         p.setProperty("delete_instead_of_backup", "false");
         p.setProperty("backup_folder_name", "Old Worlds");
         p.setProperty("backup_name_format", "%name%_%ts%");
+        p.setProperty("backup_format", "directory");
+        p.setProperty("backup_compression_level", "6");
+        p.setProperty("retention_max_count", "0");
+        p.setProperty("retention_max_total_mb", "0");
+        p.setProperty("retention_max_age_days", "0");
+        p.setProperty("retention_keep_every_nth", "0");
         p.setProperty("new_level_name_format", "%name%_%time%");
         p.setProperty("time_format", "HH-mm-ss_uuuu-MM-dd");
         p.setProperty("force_new_seed", "true");
         p.setProperty("seed_mode", "random");
         p.setProperty("custom_seed", "");
         p.setProperty("restart_delay_seconds", "10");
+        p.setProperty("countdown_display", "bossbar");
+        p.setProperty("countdown_announce_seconds", "60,30,10,5,4,3,2,1");
+        p.setProperty("countdown_flush_ms_per_tick", "10");
+        p.setProperty("masskill_per_tick", "8");
+        p.setProperty("masskill_suppress_drops", "false");
         p.setProperty("auto_restart", "true");
+        p.setProperty("discard_on_stop", "true");
+        p.setProperty("warmup_radius_chunks", "0");
+        p.setProperty("warmup_ms_per_tick", "30");
+        p.setProperty("warmup_hold_joins", "true");
+        p.setProperty("template_radius_chunks", "8");
+        p.setProperty("seed_scout_queue", "4");
+        p.setProperty("seed_scout_threads", "0");
+        p.setProperty("seed_scout_allow_spawn_biomes", "");
+        p.setProperty("seed_scout_deny_spawn_biomes", "#minecraft:is_ocean,#minecraft:is_river,#minecraft:is_mountain");
+        p.setProperty("seed_scout_max_village_chunks", "32");
+        p.setProperty("seed_scout_min_land_percent", "60");
+        p.setProperty("seed_scout_land_radius_blocks", "256");
+        p.setProperty("seed_scout_max_candidates", "2000");
+        p.setProperty("io_parallelism", "0");
+        p.setProperty("snapshot_backups", "true");
+        p.setProperty("metrics_export_seconds", "60");
+        p.setProperty("metrics_textfile", "hc_metrics.prom");
         return p;
     }
 
-    private static void saveFormatted(Properties p) throws IOException {
+    // Documented keys in file order, then unknown keys sorted (as written by format)
+    static List<String> keyOrder(Properties p) {
+        List<String> out = new ArrayList<>();
+        for (String k : KEY_COMMENTS.keySet()) if (p.containsKey(k)) out.add(k);
+        for (String k : new TreeSet<>(p.stringPropertyNames())) if (!KEY_COMMENTS.containsKey(k)) out.add(k);
+        return out;
+    }
+
+    static String format(Properties p) {
         // Build annotated file content
         StringBuilder sb = new StringBuilder();
         sb.append("# HardcorePlus+ configuration (MultiLoader common)\n");
@@ -93,14 +221,11 @@ public class ConfigManager {
             String v = p.getProperty(k, "");
             sb.append(k).append("=").append(v == null ? "" : v).append("\n\n");
         }
-        // Preserve other keys at the end
-        for (String k : p.stringPropertyNames()) {
+        // Preserve other keys at the end (sorted, so the output is stable and unchanged files are not rewritten)
+        for (String k : new TreeSet<>(p.stringPropertyNames())) {
             if (KEY_COMMENTS.containsKey(k)) continue;
             sb.append(k).append("=").append(p.getProperty(k, "")).append("\n");
         }
-        if (configPath != null) {
-            try { Files.createDirectories(configPath.getParent()); } catch (IOException ignored) {}
-            Files.writeString(configPath, sb.toString());
-        }
+        return sb.toString();
     }
 }
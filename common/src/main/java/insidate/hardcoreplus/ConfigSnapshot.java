@@ -0,0 +1,98 @@
+package insidate.hardcoreplus;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable, pre-parsed view of hardcoreplus.properties. ConfigManager publishes a new instance
+ * whenever the file changes, so readers never parse or touch the disk.
+ */
+public final class ConfigSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    static final String DEFAULT_TIME_FORMAT = "HH-mm-ss_uuuu-MM-dd";
+    static final String DEFAULT_LEVEL_NAME_FORMAT = "%name%_%time%";
+
+    private final Map<String, String> values;
+    private final boolean backupOldWorlds, deleteInsteadOfBackup, forceNewSeed, autoRestart;
+    private final int restartDelaySeconds;
+    private final String seedMode, customSeed, backupFolderName, backupNameFormat, newLevelNameFormat;
+    private final Optional<Long> customLevelSeed;
+    private final DateTimeFormatter timeFormatter;
+    private final String countdownDisplay;
+    private final BitSet countdownAnnounce;
+
+    ConfigSnapshot(Properties p) {
+        Map<String, String> m = new LinkedHashMap<>();
+        for (String k : ConfigManager.keyOrder(p)) m.put(k, p.getProperty(k));
+        this.values = Collections.unmodifiableMap(m);
+        this.backupOldWorlds = getBoolean("backup_old_worlds");
+        this.deleteInsteadOfBackup = getBoolean("delete_instead_of_backup");
+        this.forceNewSeed = getBoolean("force_new_seed");
+        this.autoRestart = getBoolean("auto_restart");
+        this.restartDelaySeconds = getInt("restart_delay_seconds", 10);
+        this.seedMode = get("seed_mode", "random").trim().toLowerCase(Locale.ROOT);
+        this.customSeed = get("custom_seed", "").trim();
+        this.customLevelSeed = parseLevelSeed(seedMode, customSeed);
+        this.backupFolderName = get("backup_folder_name", "Old Worlds");
+        this.backupNameFormat = get("backup_name_format", "%name%_%ts%");
+        this.newLevelNameFormat = nonBlank(get("new_level_name_format", ""), DEFAULT_LEVEL_NAME_FORMAT);
+        this.timeFormatter = compileTimeFormat(nonBlank(get("time_format", ""), DEFAULT_TIME_FORMAT));
+        this.countdownDisplay = get("countdown_display", "bossbar").trim().toLowerCase(Locale.ROOT);
+        this.countdownAnnounce = new BitSet();
+        for (String s : get("countdown_announce_seconds", "").split(",")) {
+            try { int v = Integer.parseInt(s.trim()); if (v > 0) countdownAnnounce.set(v); } catch (NumberFormatException ignored) {}
+        }
+    }
+
+    public String get(String key) { return values.get(key); }
+    public String get(String key, String def) { return values.getOrDefault(key, def); }
+    public boolean getBoolean(String key) { return Boolean.parseBoolean(values.getOrDefault(key, "false").trim()); }
+    public int getInt(String key, int def) { try { return Integer.parseInt(values.getOrDefault(key, Integer.toString(def)).trim()); } catch (NumberFormatException e) { return def; } }
+    public Map<String, String> values() { return values; }
+
+    public boolean backupOldWorlds() { return backupOldWorlds; }
+    public boolean deleteInsteadOfBackup() { return deleteInsteadOfBackup; }
+    public boolean forceNewSeed() { return forceNewSeed; }
+    public boolean autoRestart() { return autoRestart; }
+    public int restartDelaySeconds() { return restartDelaySeconds; }
+    public String seedMode() { return seedMode; }
+    public String customSeed() { return customSeed; }
+    // custom_seed as Minecraft parses level-seed, when seed_mode=custom and it is set
+    public Optional<Long> customLevelSeed() { return customLevelSeed; }
+    public String backupFolderName() { return backupFolderName; }
+    public String backupNameFormat() { return backupNameFormat; }
+    public String countdownDisplay() { return countdownDisplay; }
+    public boolean announcesAt(int secondsLeft) { return secondsLeft > 0 && countdownAnnounce.get(secondsLeft); }
+
+    // new_level_name_format expanded for the given base name, sanitized for use as a directory name
+    public String newLevelName(String baseName, Instant now, String id) {
+        return NameUtil.sanitizeName(newLevelNameFormat.replace("%name%", baseName).replace("%time%", timeFormatter.format(now)).replace("%id%", id));
+    }
+
+    private static Optional<Long> parseLevelSeed(String mode, String custom) {
+        if (!mode.equals("custom") || custom.isEmpty()) return Optional.empty();
+        try { return Optional.of(Long.parseLong(custom)); } catch (NumberFormatException e) { return Optional.of((long) custom.hashCode()); }
+    }
+
+    private static String nonBlank(String v, String def) { return v == null || v.isBlank() ? def : v; }
+
+    private static DateTimeFormatter compileTimeFormat(String pattern) {
+        try {
+            return DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Invalid time_format '{}'; using {}", pattern, DEFAULT_TIME_FORMAT);
+            return DateTimeFormatter.ofPattern(DEFAULT_TIME_FORMAT).withZone(ZoneId.systemDefault());
+        }
+    }
+}
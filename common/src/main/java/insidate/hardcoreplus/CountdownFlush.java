@@ -0,0 +1,46 @@
+package insidate.hardcoreplus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Spreads chunk saves over the restart countdown so the final stop has little left to flush.
+ * Loaders call this from their tick handler and supply the per-level chunk list and save call.
+ */
+public final class CountdownFlush {
+    private CountdownFlush() {}
+
+    /** Per-tick save budget in nanoseconds; 0 when no flush should run this tick. */
+    public static long budgetNanos() {
+        if (!RestartCountdown.isPending()) return 0L;
+        // Nothing is saved on a discarded stop, so early saves would be wasted work
+        if (DiscardOnStop.shouldArm()) return 0L;
+        return Math.max(0, ConfigManager.current().getInt("countdown_flush_ms_per_tick", 10)) * 1_000_000L;
+    }
+
+    /** Walks a snapshot of one level's chunks across ticks, taking a fresh snapshot after each pass. */
+    public static final class Cursor<T> {
+        private List<T> items = List.of();
+        private int next;
+
+        // Returns how many items the save predicate reported as written
+        public int run(Supplier<? extends Collection<T>> source, Predicate<T> save, long deadlineNanos) {
+            int saved = 0;
+            boolean refreshed = false;
+            while (System.nanoTime() < deadlineNanos) {
+                if (next >= items.size()) {
+                    if (refreshed) break;
+                    items = new ArrayList<>(source.get());
+                    next = 0;
+                    refreshed = true;
+                    if (items.isEmpty()) break;
+                }
+                if (save.test(items.get(next++))) saved++;
+            }
+            return saved;
+        }
+    }
+}
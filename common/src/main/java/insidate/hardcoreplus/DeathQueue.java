@@ -0,0 +1,42 @@
+package insidate.hardcoreplus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-tick collection of hardcore deaths. Death hooks only enqueue; the loader drains the queue
+ * at the end of the tick and runs one mass-kill/reset for everyone who died in it. Whether the
+ * running world is a dedicated hardcore server is cached at server start.
+ */
+public final class DeathQueue {
+    private DeathQueue() {}
+
+    private static volatile boolean active;
+    private static final List<String> PENDING = new ArrayList<>();
+
+    public static void serverStarted(boolean dedicatedHardcore) { active = dedicatedHardcore; }
+
+    public static synchronized void serverStopped() { active = false; PENDING.clear(); }
+
+    /** True when deaths on this server can trigger a reset. */
+    public static boolean isActive() { return active; }
+
+    public static synchronized void add(String player) { PENDING.add(player); }
+
+    // Victims since the last drain, in death order (empty when nobody died)
+    public static synchronized List<String> drain() {
+        if (PENDING.isEmpty()) return List.of();
+        List<String> out = List.copyOf(PENDING);
+        PENDING.clear();
+        return out;
+    }
+
+    // "A", "A and B", "A, B and C", "A, B, C and 4 others"
+    public static String describe(List<String> names) {
+        int n = names.size();
+        if (n == 0) return "A player";
+        if (n == 1) return names.get(0);
+        if (n <= 3) return String.join(", ", names.subList(0, n - 1)) + " and " + names.get(n - 1);
+        return String.join(", ", names.subList(0, 3)) + " and " + (n - 3) + " others";
+    }
+}
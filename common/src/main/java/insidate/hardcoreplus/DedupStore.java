@@ -0,0 +1,227 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed backup store under &lt;backup_folder&gt;/.hcp-store. Each file is stored once as
+ * objects/&lt;aa&gt;/&lt;sha256&gt;; a backup is a small &lt;name&gt;.hcpm manifest of "sha256 size mtime path" lines,
+ * plus "- 0 0 path/" lines for directories so empty ones survive a restore.
+ * Deliberately free of config/logging so it also runs standalone (see DedupTool) for offline restores.
+ */
+public final class DedupStore {
+    private DedupStore() {}
+
+    public static final String STORE_DIR = ".hcp-store";
+    public static final String MANIFEST_EXT = ".hcpm";
+    private static final String HEADER = "# HardcorePlus+ dedup manifest";
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final String DIR_MARKER = "-";
+    private static final String TMP_PREFIX = "tmp-";
+
+    /** newObjects/newBytes count content that was not in the store yet. */
+    public record Result(long files, long bytes, long newObjects, long newBytes, String manifestSha256) {}
+
+    private record Stored(String sha, long size, long mtime, String path, boolean added) {}
+
+    public static Result store(Path source, Path backupRoot, String backupName, Predicate<Path> skip, int threads) throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<String> dirs = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(source)) {
+            walk.forEach(p -> {
+                if (skip != null && skip.test(p)) return;
+                if (Files.isRegularFile(p)) files.add(p);
+                else if (Files.isDirectory(p) && !p.equals(source)) dirs.add(relative(source, p) + "/");
+            });
+        }
+        Path objects = backupRoot.resolve(STORE_DIR).resolve("objects");
+        Files.createDirectories(objects);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "hcp-dedup");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Stored>> futures = new ArrayList<>(files.size());
+            Set<String> claimed = ConcurrentHashMap.newKeySet();
+            Set<Path> newDirs = ConcurrentHashMap.newKeySet();
+            for (Path f : files) futures.add(pool.submit(() -> storeFile(source, f, objects, claimed, newDirs)));
+            StringBuilder manifest = new StringBuilder(HEADER).append('\n');
+            long bytes = 0, newObjects = 0, newBytes = 0;
+            for (Future<Stored> fut : futures) {
+                Stored s = await(fut);
+                bytes += s.size();
+                if (s.added()) { newObjects++; newBytes += s.size(); }
+                manifest.append(s.sha()).append(' ').append(s.size()).append(' ').append(s.mtime()).append(' ').append(s.path()).append('\n');
+            }
+            for (String dir : dirs) manifest.append(DIR_MARKER).append(" 0 0 ").append(dir).append('\n');
+            // The old world is deleted once this returns: objects, then the manifest naming them, must be on disk
+            for (Path dir : newDirs) syncDir(dir);
+            syncDir(objects);
+            byte[] data = manifest.toString().getBytes(StandardCharsets.UTF_8);
+            Path target = backupRoot.resolve(backupName + MANIFEST_EXT);
+            Path tmp = target.resolveSibling(target.getFileName() + ".part");
+            Files.write(tmp, data);
+            force(tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDir(backupRoot);
+            return new Result(files.size(), bytes, newObjects, newBytes, HexFormat.of().formatHex(sha256().digest(data)));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Backup names (manifest file names without extension) in the backup folder
+    public static List<String> list(Path backupRoot) throws IOException {
+        List<String> out = new ArrayList<>();
+        if (!Files.isDirectory(backupRoot)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(backupRoot, "*" + MANIFEST_EXT)) {
+            for (Path p : ds) {
+                String n = p.getFileName().toString();
+                out.add(n.substring(0, n.length() - MANIFEST_EXT.length()));
+            }
+        }
+        out.sort(null);
+        return out;
+    }
+
+    /** Rebuild a world directory from a manifest (byte copies, so the restored world never shares data with the store). */
+    public static long restore(Path backupRoot, String backupName, Path target) throws IOException {
+        Path objects = backupRoot.resolve(STORE_DIR).resolve("objects");
+        long restored = 0;
+        for (String line : Files.readAllLines(backupRoot.resolve(backupName + MANIFEST_EXT), StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] parts = line.split(" ", 4);
+            if (parts.length < 4) throw new IOException("Malformed manifest line: " + line);
+            Path dest = target.resolve(parts[3]).normalize();
+            if (!dest.startsWith(target)) throw new IOException("Manifest entry escapes target: " + parts[3]);
+            if (parts[0].equals(DIR_MARKER)) { Files.createDirectories(dest); continue; }
+            Files.createDirectories(dest.getParent());
+            Files.copy(objectPath(objects, parts[0]), dest, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(dest, FileTime.fromMillis(Long.parseLong(parts[2])));
+            restored++;
+        }
+        return restored;
+    }
+
+    /**
+     * Delete objects no manifest references anymore, and temp files a crashed store() left behind; returns bytes freed.
+     * Only called between backup jobs (or offline), so no store() is writing temp files meanwhile.
+     */
+    public static long gc(Path backupRoot) throws IOException {
+        Path objects = backupRoot.resolve(STORE_DIR).resolve("objects");
+        if (!Files.isDirectory(objects)) return 0;
+        Set<String> live = new HashSet<>();
+        for (String name : list(backupRoot)) {
+            for (String line : Files.readAllLines(backupRoot.resolve(name + MANIFEST_EXT), StandardCharsets.UTF_8)) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                live.add(line.substring(0, line.indexOf(' ')));
+            }
+        }
+        long freed = 0;
+        try (DirectoryStream<Path> fanout = Files.newDirectoryStream(objects)) {
+            for (Path dir : fanout) {
+                if (!Files.isDirectory(dir)) {
+                    if (!dir.getFileName().toString().startsWith(TMP_PREFIX)) continue;
+                    long size = Files.size(dir);
+                    if (Files.deleteIfExists(dir)) freed += size;
+                    continue;
+                }
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                    for (Path obj : ds) {
+                        if (live.contains(obj.getFileName().toString())) continue;
+                        long size = Files.size(obj);
+                        if (Files.deleteIfExists(obj)) freed += size;
+                    }
+                }
+            }
+        }
+        return freed;
+    }
+
+    // claimed holds the hashes a worker of this store() is already writing, so each object is written once;
+    // newDirs collects the fan-out directories that received objects, to be synced once at the end
+    private static Stored storeFile(Path root, Path file, Path objects, Set<String> claimed, Set<Path> newDirs) throws IOException {
+        MessageDigest md = sha256();
+        long size = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[1 << 16];
+            for (int n; (n = in.read(buf)) > 0; ) { md.update(buf, 0, n); size += n; }
+        }
+        String sha = HexFormat.of().formatHex(md.digest());
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+        String rel = relative(root, file);
+        Path obj = objectPath(objects, sha);
+        // An atomic move replaces an existing target on POSIX, so existing objects must be caught here
+        if (Files.exists(obj) || !claimed.add(sha)) return new Stored(sha, size, mtime, rel, false);
+        Files.createDirectories(obj.getParent());
+        Path tmp = objects.resolve(TMP_PREFIX + UUID.randomUUID());
+        try {
+            Files.copy(file, tmp);
+            force(tmp);
+            Files.move(tmp, obj, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        newDirs.add(obj.getParent());
+        return new Stored(sha, size, mtime, rel, true);
+    }
+
+    private static String relative(Path root, Path p) {
+        return root.relativize(p).toString().replace('\\', '/');
+    }
+
+    // sha comes from a manifest on disk; anything but a lowercase SHA-256 could resolve outside the store
+    private static Path objectPath(Path objects, String sha) throws IOException {
+        if (!SHA256_HEX.matcher(sha).matches()) throw new IOException("Invalid object hash in manifest: " + sha);
+        return objects.resolve(sha.substring(0, 2)).resolve(sha);
+    }
+
+    private static Stored await(Future<Stored> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while storing backup", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) { ch.force(true); }
+    }
+
+    // Same as RotationJournal.syncDir, kept here so the store has no dependencies; a no-op where directories cannot be opened
+    private static void syncDir(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) { ch.force(true); } catch (IOException ignored) {}
+    }
+
+    private static MessageDigest sha256() {
+        try { return MessageDigest.getInstance("SHA-256"); } catch (NoSuchAlgorithmException e) { throw new IllegalStateException(e); }
+    }
+}
@@ -0,0 +1,26 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Offline command line for dedup backups, kept out of DedupStore so the mod itself never touches stdout or exits.
+ * Usage: java -cp &lt;mod jar&gt; insidate.hardcoreplus.DedupTool list|restore &lt;backup folder&gt; [name] [target dir]
+ */
+public final class DedupTool {
+    private DedupTool() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("list")) {
+            for (String n : DedupStore.list(Path.of(args[1]))) System.out.println(n);
+        } else if (args.length >= 4 && args[0].equals("restore")) {
+            Path target = Path.of(args[3]);
+            if (Files.exists(target)) { System.err.println("Target already exists: " + target); System.exit(1); }
+            System.out.println("Restored " + DedupStore.restore(Path.of(args[1]), args[2], target) + " files to " + target.toAbsolutePath());
+        } else {
+            System.err.println("Usage: DedupTool list <backup folder> | restore <backup folder> <name> <target dir>");
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package insidate.hardcoreplus;
+
+/**
+ * Shutdown save suppression for rotations whose old world is deleted on the next start.
+ * Loaders arm this right before stopping; their save mixins then skip chunk, player and level.dat writes.
+ */
+public final class DiscardOnStop {
+    private DiscardOnStop() {}
+
+    private static volatile boolean armed = false;
+
+    // True when the rotation handler will delete the old world instead of backing it up
+    public static boolean isDeletePolicy() {
+        return ConfigManager.getBoolean("delete_instead_of_backup") || !ConfigManager.getBoolean("backup_old_worlds");
+    }
+
+    public static boolean shouldArm() { return ConfigManager.getBoolean("discard_on_stop") && isDeletePolicy(); }
+
+    public static void arm() { armed = true; }
+
+    public static boolean isArmed() { return armed; }
+}
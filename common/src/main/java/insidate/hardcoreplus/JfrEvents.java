@@ -0,0 +1,82 @@
+package insidate.hardcoreplus;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the death -> mass-kill -> reset -> rotation pipeline. They cost
+ * next to nothing unless a recording is running, e.g. jcmd &lt;pid&gt; JFR.start duration=10m filename=hcp.jfr.
+ */
+public final class JfrEvents {
+    private JfrEvents() {}
+
+    @Name("hardcoreplus.PlayerDeath")
+    @Label("Player Death")
+    @Category({"HardcorePlus+", "Deaths"})
+    @StackTrace(false)
+    public static final class PlayerDeath extends Event {
+        @Label("World") public String world;
+        @Label("Player") public String player;
+        @Label("Hardcore") public boolean hardcore;
+        @Label("Triggered Reset") public boolean triggeredReset;
+    }
+
+    @Name("hardcoreplus.MassKill")
+    @Label("Mass Kill")
+    @Category({"HardcorePlus+", "Deaths"})
+    @StackTrace(false)
+    public static final class MassKill extends Event {
+        @Label("World") public String world;
+        @Label("Players Killed") public int killed;
+    }
+
+    @Name("hardcoreplus.ResetRequest")
+    @Label("Reset Request")
+    @Description("Rotation prepared in requestResetAndStop: server.properties edit and rotation journal")
+    @Category({"HardcorePlus+", "Rotation"})
+    @StackTrace(false)
+    public static final class ResetRequest extends Event {
+        @Label("Old World") public String world;
+        @Label("New World") public String newWorld;
+        @Label("Reason") public String reason;
+        @Label("Seed") public String seed;
+        @Label("Template Cloned") public boolean templateCloned;
+    }
+
+    @Name("hardcoreplus.RotationPhase")
+    @Label("Rotation Phase")
+    @Description("One file-system phase of rotating an old world: stage, move, snapshot, archive, dedup, delete or retention")
+    @Category({"HardcorePlus+", "Rotation"})
+    @StackTrace(false)
+    public static final class RotationPhase extends Event {
+        @Label("Phase") public String phase;
+        @Label("World") public String world;
+        @Label("Path") public String path;
+        @Label("Bytes") @DataAmount public long bytes;
+        @Label("Paths") public long paths;
+        @Label("Failures") public long failures;
+    }
+
+    @Name("hardcoreplus.ConfigLoad")
+    @Label("Config Load")
+    @Category({"HardcorePlus+", "Config"})
+    @StackTrace(false)
+    public static final class ConfigLoad extends Event {
+        @Label("Path") public String path;
+        @Label("Bytes") @DataAmount public long bytes;
+        @Label("Written") public boolean written;
+    }
+
+    public static RotationPhase phase(String phase, String world) {
+        RotationPhase e = new RotationPhase();
+        e.phase = phase;
+        e.world = world;
+        e.begin();
+        return e;
+    }
+}
@@ -0,0 +1,86 @@
+package insidate.hardcoreplus;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mass-kill spread over server ticks: at most masskill_per_tick players die per tick (0 = all at
+ * once). Only one batch runs at a time and its completion callback runs exactly once, on the
+ * server thread, after the last kill. Loaders call {@link #tick()} every server tick.
+ */
+public final class MassKillBatch {
+    private MassKillBatch() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+
+    private static final class Batch<P> {
+        final ArrayDeque<P> queue;
+        final Predicate<P> kill;
+        final Runnable onDone;
+        final long t0 = System.nanoTime();
+        final JfrEvents.MassKill ev = new JfrEvents.MassKill();
+        int ticks;
+
+        Batch(String world, Collection<P> players, Predicate<P> kill, Runnable onDone) {
+            this.queue = new ArrayDeque<>(players);
+            this.kill = kill;
+            this.onDone = onDone;
+            ev.begin();
+            ev.world = world;
+        }
+
+        // Returns true once the queue is drained
+        boolean step(int perTick) {
+            ticks++;
+            for (int n = 0; !queue.isEmpty() && (perTick <= 0 || n < perTick); n++) {
+                P p = queue.poll();
+                try { if (kill.test(p)) ev.killed++; } catch (Throwable t) { LOGGER.warn("[hcp] Exception during mass-kill", t); }
+            }
+            return queue.isEmpty();
+        }
+    }
+
+    private static Batch<?> active;
+
+    /**
+     * Queue the players and run the first slice right away. Returns false (and does not call
+     * onDone) when another batch is still running. kill returns true when it actually killed.
+     */
+    public static synchronized <P> boolean start(String world, Collection<P> players, Predicate<P> kill, Runnable onDone) {
+        if (active != null) return false;
+        Batch<P> b = new Batch<>(world, players, kill, onDone);
+        active = b;
+        LOGGER.info("[hcp] Mass-kill of {} player(s) started ({} per tick)", players.size(), perTick() <= 0 ? "all" : perTick());
+        advance(b);
+        return true;
+    }
+
+    public static synchronized boolean isRunning() { return active != null; }
+
+    public static void tick() {
+        Batch<?> b;
+        synchronized (MassKillBatch.class) { b = active; }
+        if (b != null) advance(b);
+    }
+
+    private static void advance(Batch<?> b) {
+        if (!b.step(perTick())) return;
+        synchronized (MassKillBatch.class) {
+            if (active != b) return;
+            active = null;
+        }
+        Metrics.MASSKILL_SECONDS.observeSince(b.t0);
+        b.ev.commit();
+        LOGGER.info("[hcp] Mass-kill finished: {} killed over {} tick(s)", b.ev.killed, b.ticks);
+        try { b.onDone.run(); } catch (Throwable t) { LOGGER.error("[hcp] Mass-kill completion failed", t); }
+    }
+
+    private static int perTick() { return ConfigManager.current().getInt("masskill_per_tick", 8); }
+
+    // Deaths in a world that is about to be rotated away need not litter it
+    public static boolean suppressDrops() { return ConfigManager.current().getBoolean("masskill_suppress_drops"); }
+}
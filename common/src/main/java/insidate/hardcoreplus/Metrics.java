@@ -0,0 +1,241 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rotation metrics: lock-free counters and fixed-bucket histograms. Every rotation ends in a process
+ * exit, so values are persisted to hc_metrics.properties and carried over; a Prometheus textfile
+ * (for node_exporter's textfile collector) is rewritten every metrics_export_seconds.
+ */
+public final class Metrics {
+    private Metrics() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    private static final String STATE_FILE = "hc_metrics.properties";
+    private static final double[] SECONDS = {0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600};
+    private static final double[] COUNTS = {1, 2, 3, 5, 10, 20, 50};
+    private static final long DAY_MS = 86_400_000L;
+
+    private static final Map<String, Counter> COUNTERS = new LinkedHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new LinkedHashMap<>();
+
+    public static final Counter ROTATIONS = counter("hcp_rotations_total", "World rotations requested");
+    public static final Counter RESET_DEATHS = counter("hcp_reset_deaths_total", "Player deaths (trigger and mass-kill) that fed into a reset");
+    public static final Counter MOVE_BYTES = counter("hcp_backup_move_bytes_total", "Bytes of old worlds moved into the backup folder");
+    public static final Counter COPY_BYTES = counter("hcp_backup_copy_bytes_total", "Bytes of old worlds written by snapshot, copy, archive or dedup");
+    public static final Counter DELETE_BYTES = counter("hcp_delete_bytes_total", "Bytes of old worlds deleted");
+    public static final Counter COUNTDOWN_CHUNKS_SAVED = counter("hcp_countdown_chunks_saved_total", "Chunks saved ahead of the stop during restart countdowns");
+    public static final Histogram SHUTDOWN_SECONDS = histogram("hcp_shutdown_seconds", "Server stop duration including the final save", SECONDS);
+    public static final Histogram STARTUP_SECONDS = histogram("hcp_startup_seconds", "JVM start to server started", SECONDS);
+    public static final Histogram WARMUP_SECONDS = histogram("hcp_warmup_seconds", "Spawn-area pre-generation after a rotation", SECONDS);
+    public static final Histogram MASSKILL_SECONDS = histogram("hcp_masskill_seconds", "Mass-kill duration", SECONDS);
+    public static final Histogram MOVE_SECONDS = histogram("hcp_backup_move_seconds", "Moving an old world into the backup folder", SECONDS);
+    public static final Histogram COPY_SECONDS = histogram("hcp_backup_copy_seconds", "Snapshot/copy/archive/dedup of an old world", SECONDS);
+    public static final Histogram DELETE_SECONDS = histogram("hcp_delete_seconds", "Deleting an old world", SECONDS);
+    public static final Histogram DEATHS_PER_RESET = histogram("hcp_deaths_per_reset", "Player deaths that fed into one reset", COUNTS);
+
+    private static final AtomicInteger DEATHS_SINCE_RESET = new AtomicInteger();
+    private static final Deque<Long> RECENT_ROTATIONS = new ArrayDeque<>();
+    private static volatile long shutdownStartNanos;
+    private static Path stateDir;
+    private static ScheduledExecutorService exporter;
+
+    public static final class Counter {
+        final String name, help;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name, String help) { this.name = name; this.help = help; }
+
+        public void inc() { value.increment(); }
+        public void add(long n) { value.add(n); }
+        public long get() { return value.sum(); }
+    }
+
+    public static final class Histogram {
+        final String name, help;
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(String name, String help, double[] bounds) {
+            this.name = name; this.help = help; this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length];
+            for (int i = 0; i < bounds.length; i++) buckets[i] = new LongAdder();
+        }
+
+        public void observe(double v) {
+            for (int i = 0; i < bounds.length; i++) if (v <= bounds[i]) { buckets[i].increment(); break; }
+            count.increment();
+            sum.add(v);
+        }
+
+        public void observeSince(long startNanos) { observe((System.nanoTime() - startNanos) / 1e9); }
+        public long count() { return count.sum(); }
+        public double sum() { return sum.sum(); }
+        public double mean() { long c = count(); return c == 0 ? 0 : sum() / c; }
+    }
+
+    private static Counter counter(String name, String help) { Counter c = new Counter(name, help); COUNTERS.put(name, c); return c; }
+    private static Histogram histogram(String name, String help, double[] bounds) { Histogram h = new Histogram(name, help, bounds); HISTOGRAMS.put(name, h); return h; }
+
+    public static void playerDied() { DEATHS_SINCE_RESET.incrementAndGet(); RESET_DEATHS.inc(); }
+
+    public static void rotation() {
+        ROTATIONS.inc();
+        DEATHS_PER_RESET.observe(DEATHS_SINCE_RESET.getAndSet(0));
+        synchronized (RECENT_ROTATIONS) { RECENT_ROTATIONS.addLast(System.currentTimeMillis()); }
+    }
+
+    public static int rotationsLastDay() {
+        long cutoff = System.currentTimeMillis() - DAY_MS;
+        synchronized (RECENT_ROTATIONS) {
+            while (!RECENT_ROTATIONS.isEmpty() && RECENT_ROTATIONS.peekFirst() < cutoff) RECENT_ROTATIONS.pollFirst();
+            return RECENT_ROTATIONS.size();
+        }
+    }
+
+    public static void serverStarted() { STARTUP_SECONDS.observe((System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()) / 1000.0); }
+    public static void serverStopping() { shutdownStartNanos = System.nanoTime(); }
+
+    // Called once the server has fully stopped: records the stop duration and persists everything
+    public static void serverStopped() {
+        if (shutdownStartNanos != 0) SHUTDOWN_SECONDS.observeSince(shutdownStartNanos);
+        shutdownStartNanos = 0;
+        save();
+    }
+
+    /** Load persisted values once per process and start the periodic exporter. */
+    public static synchronized void start(Path runDir) {
+        if (stateDir != null) return;
+        stateDir = runDir;
+        load(runDir.resolve(STATE_FILE));
+        int period = ConfigManager.getInt("metrics_export_seconds", 60);
+        if (period <= 0) return;
+        exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hcp-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        exporter.scheduleWithFixedDelay(Metrics::save, period, period, TimeUnit.SECONDS);
+    }
+
+    // Human-readable lines for /hcp metrics
+    public static List<String> summary() {
+        List<String> out = new ArrayList<>();
+        out.add(String.format(Locale.ROOT, "Rotations: %d total, %d in the last 24h", ROTATIONS.get(), rotationsLastDay()));
+        out.add(String.format(Locale.ROOT, "Deaths feeding resets: %d (%.1f per reset)", RESET_DEATHS.get(), DEATHS_PER_RESET.mean()));
+        out.add(line("Shutdown (incl. save)", SHUTDOWN_SECONDS, -1));
+        out.add(String.format(Locale.ROOT, "Chunks saved during countdowns: %d", COUNTDOWN_CHUNKS_SAVED.get()));
+        out.add(line("Startup to started", STARTUP_SECONDS, -1));
+        out.add(line("Spawn warm-up", WARMUP_SECONDS, -1));
+        out.add(line("Mass-kill", MASSKILL_SECONDS, -1));
+        out.add(line("Backup move", MOVE_SECONDS, MOVE_BYTES.get()));
+        out.add(line("Backup copy", COPY_SECONDS, COPY_BYTES.get()));
+        out.add(line("Delete", DELETE_SECONDS, DELETE_BYTES.get()));
+        return out;
+    }
+
+    private static String line(String label, Histogram h, long bytes) {
+        String s = String.format(Locale.ROOT, "%s: n=%d, avg %.2fs, total %.1fs", label, h.count(), h.mean(), h.sum());
+        return bytes < 0 ? s : s + String.format(Locale.ROOT, ", %.1f MB", bytes / 1048576.0);
+    }
+
+    public static String prometheus() {
+        StringBuilder sb = new StringBuilder();
+        for (Counter c : COUNTERS.values()) {
+            sb.append("# HELP ").append(c.name).append(' ').append(c.help).append('\n');
+            sb.append("# TYPE ").append(c.name).append(" counter\n");
+            sb.append(c.name).append(' ').append(c.get()).append('\n');
+        }
+        sb.append("# HELP hcp_rotations_last_24h World rotations in the last 24 hours\n# TYPE hcp_rotations_last_24h gauge\n");
+        sb.append("hcp_rotations_last_24h ").append(rotationsLastDay()).append('\n');
+        for (Histogram h : HISTOGRAMS.values()) {
+            sb.append("# HELP ").append(h.name).append(' ').append(h.help).append('\n');
+            sb.append("# TYPE ").append(h.name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = 0; i < h.bounds.length; i++) {
+                cumulative += h.buckets[i].sum();
+                sb.append(h.name).append("_bucket{le=\"").append(fmt(h.bounds[i])).append("\"} ").append(cumulative).append('\n');
+            }
+            sb.append(h.name).append("_bucket{le=\"+Inf\"} ").append(h.count()).append('\n');
+            sb.append(h.name).append("_sum ").append(fmt(h.sum())).append('\n');
+            sb.append(h.name).append("_count ").append(h.count()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String fmt(double d) { return d == Math.rint(d) && Math.abs(d) < 1e15 ? Long.toString((long) d) : Double.toString(d); }
+
+    private static synchronized void save() {
+        if (stateDir == null) return;
+        try {
+            Properties p = new Properties();
+            for (Counter c : COUNTERS.values()) p.setProperty(c.name, Long.toString(c.get()));
+            for (Histogram h : HISTOGRAMS.values()) {
+                p.setProperty(h.name + ".count", Long.toString(h.count()));
+                p.setProperty(h.name + ".sum", Double.toString(h.sum()));
+                for (int i = 0; i < h.bounds.length; i++) p.setProperty(h.name + ".b" + i, Long.toString(h.buckets[i].sum()));
+            }
+            rotationsLastDay();
+            synchronized (RECENT_ROTATIONS) { p.setProperty("recent_rotations", String.join(",", RECENT_ROTATIONS.stream().map(String::valueOf).toList())); }
+            p.setProperty("deaths_since_reset", Integer.toString(DEATHS_SINCE_RESET.get()));
+            Path state = stateDir.resolve(STATE_FILE);
+            Path tmp = state.resolveSibling(STATE_FILE + ".tmp");
+            try (var w = Files.newBufferedWriter(tmp)) { p.store(w, "HardcorePlus+ metrics"); }
+            Files.move(tmp, state, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            String textfile = ConfigManager.current().get("metrics_textfile", "hc_metrics.prom").trim();
+            if (!textfile.isEmpty()) {
+                // node_exporter may read at any moment: write aside, then rename
+                Path prom = stateDir.resolve(textfile);
+                Path promTmp = prom.resolveSibling(prom.getFileName() + ".tmp");
+                Files.writeString(promTmp, prometheus());
+                Files.move(promTmp, prom, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Failed to write metrics: {}", e.toString());
+        }
+    }
+
+    private static void load(Path state) {
+        if (!Files.isRegularFile(state)) return;
+        Properties p = new Properties();
+        try (var r = Files.newBufferedReader(state)) { p.load(r); } catch (IOException e) { LOGGER.info("Failed to read {}: {}", state, e.toString()); return; }
+        try {
+            for (Counter c : COUNTERS.values()) c.add(Long.parseLong(p.getProperty(c.name, "0")));
+            for (Histogram h : HISTOGRAMS.values()) {
+                h.count.add(Long.parseLong(p.getProperty(h.name + ".count", "0")));
+                h.sum.add(Double.parseDouble(p.getProperty(h.name + ".sum", "0")));
+                for (int i = 0; i < h.bounds.length; i++) h.buckets[i].add(Long.parseLong(p.getProperty(h.name + ".b" + i, "0")));
+            }
+            synchronized (RECENT_ROTATIONS) {
+                for (String s : p.getProperty("recent_rotations", "").split(",")) if (!s.isBlank()) RECENT_ROTATIONS.addLast(Long.parseLong(s.trim()));
+            }
+            DEATHS_SINCE_RESET.addAndGet(Integer.parseInt(p.getProperty("deaths_since_reset", "0")));
+        } catch (NumberFormatException e) {
+            LOGGER.info("Ignoring malformed metrics state: {}", e.toString());
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package insidate.hardcoreplus;
 
+import java.util.regex.Pattern;
+
 public final class NameUtil {
     private NameUtil() {}
 
+    private static final Pattern ILLEGAL_CHARS = Pattern.compile("[\\\\/:*?\"<>|]");
+    private static final Pattern TIME_SUFFIXES = Pattern.compile("(?:_\\d{2}-\\d{2}-\\d{2}_\\d{4}-\\d{2}-\\d{2})+$");
+
     // Replace characters that are illegal in Windows/macOS/Linux filenames and tidy up
     public static String sanitizeName(String input) {
         if (input == null) return "world_" + System.currentTimeMillis();
-        String t = input.replaceAll("[\\\\/:*?\"<>|]", "-");
+        String t = ILLEGAL_CHARS.matcher(input).replaceAll("-");
         t = t.trim();
         while (!t.isEmpty() && (t.endsWith(" ") || t.endsWith("."))) t = t.substring(0, t.length() - 1);
         return t.isEmpty() ? ("world_" + System.currentTimeMillis()) : t;
@@ -15,9 +20,7 @@ public final class NameUtil {
     // Remove repeated trailing timestamp segments like "_HH-mm-ss_yyyy-MM-dd"
     public static String stripTimeSuffixes(String name) {
         if (name == null || name.isBlank()) return name;
-        String out = name;
-    String regex = "(?:_\\d{2}-\\d{2}-\\d{2}_\\d{4}-\\d{2}-\\d{2})+$";
-        out = out.replaceFirst(regex, "");
+        String out = TIME_SUFFIXES.matcher(name).replaceFirst("");
         while (out.endsWith("_")) out = out.substring(0, out.length() - 1);
         return out;
     }
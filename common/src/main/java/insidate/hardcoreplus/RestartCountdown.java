@@ -0,0 +1,81 @@
+package insidate.hardcoreplus;
+
+/**
+ * Cancellable restart countdown driven by the server tick (no timer thread). Loaders call
+ * {@link #tick()} at the end of every server tick and supply a {@link Display} for their UI.
+ * State lives here rather than in the config, so /hcp reload only changes how it is shown.
+ */
+public final class RestartCountdown {
+    private RestartCountdown() {}
+
+    /** Loader-side presentation; all calls happen on the server thread. */
+    public interface Display {
+        void bossBar(int secondsLeft, float progress);
+        void actionBar(int secondsLeft);
+        void chat(int secondsLeft);
+        void clear();
+    }
+
+    private record Pending(long deadlineNanos, int totalSeconds, Display display, Runnable onExpire) {}
+
+    private static volatile Pending pending;
+    private static int lastSecond = -1;
+    private static String lastMode = "";
+
+    // Returns false when a countdown is already running
+    public static synchronized boolean schedule(int seconds, Display display, Runnable onExpire) {
+        if (pending != null) return false;
+        int total = Math.max(0, seconds);
+        pending = new Pending(System.nanoTime() + total * 1_000_000_000L, total, display, onExpire);
+        lastSecond = -1;
+        lastMode = "";
+        return true;
+    }
+
+    // Returns false when nothing was scheduled
+    public static synchronized boolean cancel() {
+        Pending p = pending;
+        if (p == null) return false;
+        pending = null;
+        p.display().clear();
+        return true;
+    }
+
+    public static boolean isPending() { return pending != null; }
+
+    /** Whole seconds until the stop, or -1 when no restart is scheduled. */
+    public static int secondsLeft() {
+        Pending p = pending;
+        return p == null ? -1 : ceilSeconds(p.deadlineNanos() - System.nanoTime());
+    }
+
+    public static void tick() {
+        Pending p = pending;
+        if (p == null) return;
+        long left = p.deadlineNanos() - System.nanoTime();
+        if (left <= 0) {
+            synchronized (RestartCountdown.class) {
+                if (pending != p) return;
+                pending = null;
+            }
+            p.display().clear();
+            p.onExpire().run();
+            return;
+        }
+        int secs = ceilSeconds(left);
+        String mode = ConfigManager.current().countdownDisplay();
+        if (!mode.equals(lastMode)) { p.display().clear(); lastMode = mode; lastSecond = -1; }
+        if (secs == lastSecond) return;
+        boolean first = lastSecond < 0;
+        lastSecond = secs;
+        switch (mode) {
+            case "bossbar" -> p.display().bossBar(secs, p.totalSeconds() == 0 ? 0f : Math.min(1f, secs / (float) p.totalSeconds()));
+            case "actionbar" -> p.display().actionBar(secs);
+            default -> {}
+        }
+        // The reset broadcast already names the full delay
+        if (!(first && secs >= p.totalSeconds()) && ConfigManager.current().announcesAt(secs)) p.display().chat(secs);
+    }
+
+    private static int ceilSeconds(long nanos) { return (int) Math.max(0, (nanos + 999_999_999L) / 1_000_000_000L); }
+}
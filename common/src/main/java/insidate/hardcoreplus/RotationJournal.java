@@ -0,0 +1,245 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only rotation journal. Each record is one CRC-checked line with the phase reached and the
+ * rotation's full state, forced to disk before the step it describes is considered done, so
+ * recovery only reads the last intact line from the end of the file. The active rotation lives in
+ * hc_rotation.journal next to server.properties; once its old world is staged the journal moves to
+ * hc_pending/ and the backup worker keeps appending to it.
+ */
+public final class RotationJournal {
+    private RotationJournal() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    public static final String FILE_NAME = "hc_rotation.journal";
+    public static final String EXTENSION = ".journal";
+    // Written by older versions; adopted as a prepared rotation
+    private static final String LEGACY_MARKER = "hc_reset.flag";
+    private static final int TAIL_BYTES = 8192;
+
+    public enum Phase { PREPARED, STOPPED, MOVED, COPIED, DELETED, DONE, CANCELLED }
+
+    /** One record: the phase reached and the rotation state at that point. */
+    public record Entry(Phase phase, Map<String, String> data) {
+        public String get(String key) { return data.get(key); }
+
+        public String get(String key, String def) { return data.getOrDefault(key, def); }
+
+        public long getLong(String key) {
+            try { return Long.parseLong(data.getOrDefault(key, "0")); } catch (NumberFormatException e) { return 0L; }
+        }
+
+        /** The same rotation moved on to next, with changes merged into its state. */
+        public Entry with(Phase next, Map<String, String> changes) {
+            Map<String, String> merged = new LinkedHashMap<>(data);
+            merged.putAll(changes);
+            return new Entry(next, Collections.unmodifiableMap(merged));
+        }
+
+        // e.g. "copied 256/1024"
+        public String describe() {
+            String name = phase.name().toLowerCase(Locale.ROOT);
+            return phase == Phase.COPIED ? name + " " + get("copied", "0") + "/" + get("total", "0") : name;
+        }
+    }
+
+    public static Path active(Path runDir) { return runDir.resolve(FILE_NAME); }
+
+    /** Replace journal with a new one holding just first. */
+    public static synchronized Entry create(Path journal, Entry first) throws IOException {
+        Path tmp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(ch, 0, encode(first));
+            ch.force(true);
+        }
+        Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDir(journal.getParent());
+        return first;
+    }
+
+    /** Append entry and force it to disk before returning it. */
+    public static synchronized Entry append(Path journal, Entry entry) throws IOException {
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            ByteBuffer line = encode(entry);
+            if (size > 0) {
+                // Terminate a torn final line so it cannot swallow this record
+                ByteBuffer last = ByteBuffer.allocate(1);
+                ch.read(last, size - 1);
+                if (last.get(0) != '\n') write(ch, size++, ByteBuffer.wrap(new byte[] {'\n'}));
+            }
+            write(ch, size, line);
+            ch.force(false);
+        }
+        return entry;
+    }
+
+    /** Last intact record, read from the tail of the file; empty when the journal is missing or unreadable. */
+    public static synchronized Optional<Entry> last(Path journal) throws IOException {
+        if (!Files.isRegularFile(journal)) return Optional.empty();
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long from = Math.max(0L, size - TAIL_BYTES);
+            Optional<Entry> e = scan(ch, from, size);
+            // Only a damaged tail (or an oversized record) costs a full read
+            if (e.isEmpty() && from > 0) e = scan(ch, 0L, size);
+            return e;
+        }
+    }
+
+    /** Atomically move a journal (same filesystem) and make the rename durable. */
+    public static synchronized void move(Path from, Path to) throws IOException {
+        Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+        syncDir(to.getParent());
+        syncDir(from.getParent());
+    }
+
+    /** True while a rotation is prepared, stopping or still being staged. */
+    public static boolean inProgress(Path runDir) throws IOException {
+        return activeEntry(runDir).filter(e -> e.phase() != Phase.DONE && e.phase() != Phase.CANCELLED).isPresent();
+    }
+
+    /** State of the active rotation journal, adopting a legacy hc_reset.flag first. */
+    public static Optional<Entry> activeEntry(Path runDir) throws IOException {
+        Path marker = runDir.resolve(LEGACY_MARKER);
+        if (Files.exists(marker) && !Files.exists(active(runDir))) {
+            Properties mp = new Properties();
+            try (var r = Files.newBufferedReader(marker)) { mp.load(r); }
+            Map<String, String> data = new LinkedHashMap<>();
+            for (String key : mp.stringPropertyNames()) data.put(key, mp.getProperty(key));
+            data.put("id", newId(mp.getProperty("old-level-name", "world")));
+            create(active(runDir), new Entry(Phase.PREPARED, data));
+            Files.deleteIfExists(marker);
+            LOGGER.info("Adopted legacy {} into {}", LEGACY_MARKER, FILE_NAME);
+        }
+        return last(active(runDir));
+    }
+
+    /** Record that the server is stopping for the prepared rotation. */
+    public static void stopped(Path runDir) throws IOException {
+        Optional<Entry> e = activeEntry(runDir);
+        if (e.isPresent() && e.get().phase() == Phase.PREPARED) append(active(runDir), e.get().with(Phase.STOPPED, Map.of("stopped", Long.toString(System.currentTimeMillis()))));
+    }
+
+    /**
+     * Undo a prepared but not yet applied rotation: restore level-name (and level-seed when it was
+     * changed), drop a template clone and close the journal.
+     * Returns false when no rotation is pending.
+     */
+    public static boolean cancel(Path runDir) throws IOException {
+        Optional<Entry> last = activeEntry(runDir);
+        if (last.isEmpty() || (last.get().phase() != Phase.PREPARED && last.get().phase() != Phase.STOPPED)) return false;
+        Entry e = last.get();
+        Map<String, String> edits = new LinkedHashMap<>();
+        String oldName = e.get("old-level-name");
+        if (oldName != null && !oldName.isBlank()) edits.put("level-name", oldName);
+        if (e.data().containsKey("old-seed")) edits.put("level-seed", e.get("old-seed"));
+        if (!edits.isEmpty()) ServerPropertiesStore.update(runDir, edits);
+        // Closed only after the edits above: a crash before this point is cancelled again on the next start
+        close(runDir, e);
+        LOGGER.info("Reverted pending rotation '{}' -> '{}'", oldName, e.get("new-level-name"));
+        return true;
+    }
+
+    /** Close a prepared rotation whose server.properties edit never happened; drops a template clone. */
+    public static void abandon(Path runDir) throws IOException {
+        Optional<Entry> last = activeEntry(runDir);
+        if (last.isPresent() && last.get().phase() == Phase.PREPARED) close(runDir, last.get());
+    }
+
+    private static void close(Path runDir, Entry e) throws IOException {
+        String newName = e.get("new-level-name");
+        // A world cloned from a template is cheap to clone again
+        if (newName != null && e.data().containsKey("template")) TreeOps.deleteTree(runDir.resolve(newName));
+        append(active(runDir), e.with(Phase.CANCELLED, Map.of()));
+        Files.deleteIfExists(active(runDir));
+    }
+
+    /** Rotation id, also used as the staged directory name in hc_pending/. */
+    public static String newId(String levelName) {
+        return NameUtil.sanitizeName(levelName) + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    // Make a create/rename durable; directories cannot be opened for sync everywhere (e.g. Windows)
+    static void syncDir(Path dir) {
+        if (dir == null) return;
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) { ch.force(true); } catch (IOException ignored) {}
+    }
+
+    private static Optional<Entry> scan(FileChannel ch, long from, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) (size - from));
+        while (buf.hasRemaining() && ch.read(buf, from + buf.position()) >= 0) {}
+        String text = new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8);
+        // Anything after the last newline is a torn append
+        int end = text.lastIndexOf('\n');
+        while (end >= 0) {
+            int start = text.lastIndexOf('\n', end - 1) + 1;
+            // The first line of a tail window is usually cut off
+            if (start == 0 && from > 0) break;
+            Entry e = decode(text.substring(start, end));
+            if (e != null) return Optional.of(e);
+            end = start - 1;
+        }
+        return Optional.empty();
+    }
+
+    private static ByteBuffer encode(Entry e) {
+        StringBuilder body = new StringBuilder(e.phase().name());
+        for (Map.Entry<String, String> kv : e.data().entrySet()) {
+            body.append('\t').append(URLEncoder.encode(kv.getKey(), StandardCharsets.UTF_8))
+                    .append('=').append(URLEncoder.encode(kv.getValue(), StandardCharsets.UTF_8));
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return ByteBuffer.wrap((String.format(Locale.ROOT, "%08x\t", crc.getValue()) + body + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null for torn or damaged lines
+    private static Entry decode(String line) {
+        int tab = line.indexOf('\t');
+        if (tab != 8) return null;
+        String body = line.substring(tab + 1);
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        if (!String.format(Locale.ROOT, "%08x", crc.getValue()).equals(line.substring(0, tab))) return null;
+        String[] fields = body.split("\t");
+        Map<String, String> data = new LinkedHashMap<>();
+        for (int i = 1; i < fields.length; i++) {
+            int eq = fields[i].indexOf('=');
+            if (eq < 0) return null;
+            data.put(URLDecoder.decode(fields[i].substring(0, eq), StandardCharsets.UTF_8), URLDecoder.decode(fields[i].substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        try {
+            return new Entry(Phase.valueOf(fields[0]), Collections.unmodifiableMap(data));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void write(FileChannel ch, long pos, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) pos += ch.write(buf, pos);
+    }
+}
@@ -0,0 +1,197 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rotation preparation shared by both loaders: picks the new level-name and seed, clones a world
+ * template, journals the rotation and edits server.properties. All of it runs on a virtual-thread I/O
+ * executor; the server thread only submits the job and is called back once the rotation is prepared.
+ */
+public final class RotationPrep {
+    private RotationPrep() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    private static final ExecutorService IO = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hcp-rotation-", 0).factory());
+    private static final AtomicBoolean IN_FLIGHT = new AtomicBoolean();
+    // Set by cancel() while a request is in flight; checked on the server thread before onPrepared
+    private static final AtomicBoolean CANCEL_REQUESTED = new AtomicBoolean();
+
+    public record Result(String oldLevelName, String newLevelName, String seed) {}
+
+    /** True while a rotation is being prepared or counting down; further requests are ignored. */
+    public static boolean isBusy() { return IN_FLIGHT.get() || RestartCountdown.isPending(); }
+
+    /**
+     * Queue a rotation. Returns false when one is already in progress. onPrepared runs on the
+     * given server executor once the rotation is journaled, onFailed (with a message for players)
+     * once a failed preparation has been rolled back; neither runs when a rotation was already in
+     * progress. The request counts as busy until the callback has run, so onPrepared can start the
+     * countdown without a gap in which another request gets through.
+     */
+    public static boolean submit(Path runDir, String reason, Executor serverThread, Consumer<Result> onPrepared, Consumer<String> onFailed) {
+        if (RestartCountdown.isPending() || !IN_FLIGHT.compareAndSet(false, true)) return false;
+        CANCEL_REQUESTED.set(false);
+        IO.execute(() -> {
+            Optional<Result> result;
+            try {
+                // The journal check inside prepare still covers a request racing the countdown start
+                result = prepare(runDir, reason);
+            } catch (Throwable t) {
+                LOGGER.error("Failed to prepare world rotation", t);
+                // prepare attaches a failed rollback as suppressed
+                String msg = t.getSuppressed().length == 0 ? "World rotation failed and was rolled back; the current world continues. See the server log."
+                        : "World rotation failed and could not be rolled back; it will be resolved on the next start. See the server log.";
+                onServerThread(serverThread, () -> onFailed.accept(msg));
+                return;
+            }
+            if (result.isEmpty()) { IN_FLIGHT.set(false); return; }
+            onServerThread(serverThread, () -> {
+                if (!CANCEL_REQUESTED.getAndSet(false)) { onPrepared.accept(result.get()); return; }
+                try { RotationJournal.cancel(runDir); } catch (IOException e) { LOGGER.error("Failed to revert rotation cancelled while it was being prepared", e); }
+            });
+        });
+        return true;
+    }
+
+    /**
+     * Stop the countdown and revert the prepared rotation (server thread). A rotation still being
+     * prepared is reverted as soon as it is journaled. Returns false when nothing was pending.
+     */
+    public static boolean cancel(Path runDir) throws IOException {
+        boolean countdown = RestartCountdown.cancel();
+        if (IN_FLIGHT.get()) { CANCEL_REQUESTED.set(true); return true; }
+        return RotationJournal.cancel(runDir) || countdown;
+    }
+
+    // Runs task on the server thread and ends the request afterwards, even if the server no longer takes tasks
+    private static void onServerThread(Executor serverThread, Runnable task) {
+        try {
+            serverThread.execute(() -> {
+                try { task.run(); } finally { IN_FLIGHT.set(false); }
+            });
+        } catch (RuntimeException e) {
+            IN_FLIGHT.set(false);
+            throw e;
+        }
+    }
+
+    static Optional<Result> prepare(Path runDir, String reason) throws IOException {
+        ConfigSnapshot cfg = ConfigManager.current();
+        JfrEvents.ResetRequest ev = new JfrEvents.ResetRequest();
+        ev.begin();
+        ev.reason = reason;
+        if (RotationJournal.inProgress(runDir)) { LOGGER.warn("{} already holds a pending rotation; skipping duplicate request.", RotationJournal.FILE_NAME); return Optional.empty(); }
+
+        String oldLevelName = ServerPropertiesStore.levelName(runDir);
+        String oldSeed = ServerPropertiesStore.get(runDir, "level-seed", "");
+        Map<String, String> edits = new LinkedHashMap<>();
+        String baseLevelName = baseLevelName(runDir, oldLevelName);
+        String newLevelName = cfg.newLevelName(baseLevelName, Instant.now(), UUID.randomUUID().toString().substring(0, 8));
+        edits.put("level-name", newLevelName);
+
+        // A custom seed with a captured template gets a pre-generated copy as the new level directory
+        Optional<Snapshot.Strategy> cloned = cfg.forceNewSeed() ? cfg.customLevelSeed().flatMap(seed -> WorldTemplate.cloneInto(runDir, newLevelName, seed)) : Optional.empty();
+        ev.world = oldLevelName;
+        ev.newWorld = newLevelName;
+        ev.templateCloned = cloned.isPresent();
+
+        String newSeed = null;
+        if (cfg.forceNewSeed()) {
+            String customSeed = cfg.customSeed();
+            if (cfg.seedMode().equals("custom") && !customSeed.isBlank()) newSeed = customSeed;
+            else newSeed = Long.toString(SeedScout.take().orElseGet(() -> ThreadLocalRandom.current().nextLong()));
+            edits.put("level-seed", newSeed);
+        }
+
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("id", RotationJournal.newId(oldLevelName));
+        data.put("reason", reason);
+        data.put("time", Long.toString(System.currentTimeMillis()));
+        data.put("old-level-name", oldLevelName);
+        data.put("new-level-name", newLevelName);
+        data.put("base-level-name", baseLevelName);
+        if (newSeed != null) { data.put("new-seed", newSeed); data.put("old-seed", oldSeed); }
+        worldStart(runDir, oldLevelName, data);
+        cloned.ifPresent(strategy -> data.put("template", strategy.name()));
+        // Journaled before the edit: a start that still finds the old level-name cancels the rotation
+        try {
+            RotationJournal.create(RotationJournal.active(runDir), new RotationJournal.Entry(RotationJournal.Phase.PREPARED, data));
+        } catch (IOException | RuntimeException e) {
+            if (cloned.isPresent()) TreeOps.deleteTree(runDir.resolve(newLevelName));
+            throw e;
+        }
+        try {
+            ServerPropertiesStore.update(runDir, edits);
+        } catch (IOException | RuntimeException e) {
+            // A stale PREPARED journal would block every later rotation until a restart. server.properties is
+            // replaced atomically, so it normally still names the old world and only the journal and clone go.
+            try {
+                if (oldLevelName.equals(ServerPropertiesStore.levelName(runDir))) RotationJournal.abandon(runDir);
+                else RotationJournal.cancel(runDir);
+            } catch (IOException | RuntimeException e2) { e.addSuppressed(e2); }
+            throw e;
+        }
+        LOGGER.info("Prepared rotation {}: old-level-name='{}' -> new-level-name='{}'{}", data.get("id"), oldLevelName, newLevelName, newSeed == null ? "" : ", level-seed=" + newSeed);
+        ev.seed = newSeed;
+        ev.commit();
+        return Optional.of(new Result(oldLevelName, newLevelName, newSeed));
+    }
+
+    // Stable base name from hc_base_name.txt (created on first rotation), without trailing time suffixes
+    private static String baseLevelName(Path runDir, String oldLevelName) {
+        Path baseFile = runDir.resolve("hc_base_name.txt");
+        try {
+            if (Files.exists(baseFile)) {
+                String stored = Files.readString(baseFile).trim();
+                String base = stored.isEmpty() ? oldLevelName : stored;
+                String cleaned = NameUtil.stripTimeSuffixes(base);
+                if (!cleaned.equals(stored)) {
+                    try { writeBaseName(baseFile, cleaned); LOGGER.info("Normalized base level-name to '{}' in {}", cleaned, baseFile.toAbsolutePath()); } catch (IOException ignored) {}
+                }
+                return cleaned;
+            }
+            String base = NameUtil.stripTimeSuffixes(oldLevelName);
+            writeBaseName(baseFile, base);
+            LOGGER.info("Saved base level-name '{}' to {}", base, baseFile.toAbsolutePath());
+            return base;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read/write base level-name; using current level-name as base", e);
+            return NameUtil.stripTimeSuffixes(oldLevelName);
+        }
+    }
+
+    // Start time and seed of the retired world as recorded by the loader at startup, for the backup catalog
+    private static void worldStart(Path runDir, String oldLevelName, Map<String, String> data) {
+        Path flag = runDir.resolve("hc_world_start.flag");
+        if (!Files.isRegularFile(flag)) return;
+        Properties p = new Properties();
+        try (var r = Files.newBufferedReader(flag)) { p.load(r); } catch (IOException e) { return; }
+        if (!oldLevelName.equals(p.getProperty("level-name"))) return;
+        if (p.getProperty("start") != null) data.put("world-start", p.getProperty("start"));
+        if (p.getProperty("seed") != null) data.put("world-seed", p.getProperty("seed"));
+    }
+
+    private static void writeBaseName(Path baseFile, String base) throws IOException {
+        Path tmp = baseFile.resolveSibling(baseFile.getFileName() + ".tmp");
+        Files.writeString(tmp, base);
+        Files.move(tmp, baseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,200 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background seed pre-screening for seed_mode=random. Worker threads on spare cores draw random
+ * seeds, let the loader's {@link Evaluator} sample spawn biome, nearby villages and land ratio from
+ * the biome source and noise samplers alone, and keep approved seeds in a ready queue
+ * (hc_seed_queue.txt) that rotations take from without waiting. The queue is dropped when the
+ * rules or the Minecraft version change.
+ */
+public final class SeedScout {
+    private SeedScout() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    public static final String FILE_NAME = "hc_seed_queue.txt";
+
+    /** Screening rules from the config; biome entries are ids or #tags. */
+    public record Rules(Set<String> allowSpawn, Set<String> denySpawn, int maxVillageChunks, int minLandPercent, int landRadiusBlocks) {
+        static Rules fromConfig(ConfigSnapshot cfg) {
+            return new Rules(list(cfg.get("seed_scout_allow_spawn_biomes", "")), list(cfg.get("seed_scout_deny_spawn_biomes", "")),
+                    Math.max(0, cfg.getInt("seed_scout_max_village_chunks", 32)), Math.max(0, Math.min(100, cfg.getInt("seed_scout_min_land_percent", 60))),
+                    Math.max(16, cfg.getInt("seed_scout_land_radius_blocks", 256)));
+        }
+
+        private static Set<String> list(String csv) {
+            Set<String> out = new LinkedHashSet<>();
+            for (String s : csv.split(",")) if (!s.isBlank()) out.add(s.trim().toLowerCase(Locale.ROOT));
+            return out;
+        }
+    }
+
+    /**
+     * What the evaluator measured for one seed. spawnBiome holds the biome id followed by its tags
+     * as "#namespace:path"; villageChunks is -1 when no village was found within the rule's range.
+     */
+    public record Sample(long seed, List<String> spawnBiome, int villageChunks, int landPercent) {}
+
+    /** Loader-side sampler; called concurrently from scout threads, must not generate chunks. */
+    public interface Evaluator {
+        Sample evaluate(long seed, Rules rules);
+    }
+
+    private static final ConcurrentLinkedDeque<Long> READY = new ConcurrentLinkedDeque<>();
+    private static ExecutorService executor;
+    private static volatile Evaluator evaluator;
+    private static volatile Path runDir;
+    private static volatile String fingerprint;
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    public static boolean isEnabled() {
+        ConfigSnapshot cfg = ConfigManager.current();
+        return cfg.forceNewSeed() && cfg.customLevelSeed().isEmpty() && cfg.getInt("seed_scout_queue", 4) > 0;
+    }
+
+    public static int readyCount() { return READY.size(); }
+
+    /** Load the saved queue and start filling it; evaluator stays valid until {@link #stop()}. */
+    public static synchronized void start(Path dir, String mcVersion, Evaluator eval) {
+        if (!isEnabled()) return;
+        runDir = dir;
+        evaluator = eval;
+        Rules rules = Rules.fromConfig(ConfigManager.current());
+        fingerprint = mcVersion + "|" + rules;
+        load();
+        if (executor == null) {
+            int threads = ConfigManager.getInt("seed_scout_threads", 0);
+            if (threads <= 0) threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2 - 1);
+            AtomicInteger n = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "hcp-seed-scout-" + n.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+        }
+        refill();
+    }
+
+    public static synchronized void stop() {
+        evaluator = null;
+        if (executor != null) { executor.shutdownNow(); executor = null; }
+    }
+
+    /** Oldest approved seed, if any; triggers a refill. */
+    public static Optional<Long> take() {
+        if (!isEnabled()) return Optional.empty();
+        Long seed = READY.pollFirst();
+        if (seed == null) return Optional.empty();
+        save();
+        refill();
+        return Optional.of(seed);
+    }
+
+    private static synchronized void refill() {
+        if (executor == null || evaluator == null) return;
+        int missing = ConfigManager.getInt("seed_scout_queue", 4) - READY.size();
+        if (missing <= 0 || ACTIVE.get() > 0) return;
+        int budget = Math.max(1, ConfigManager.getInt("seed_scout_max_candidates", 2000));
+        Rules rules = Rules.fromConfig(ConfigManager.current());
+        AtomicInteger candidates = new AtomicInteger();
+        long t0 = System.nanoTime();
+        int workers = ((ThreadPoolExecutor) executor).getCorePoolSize();
+        for (int i = 0; i < workers; i++) {
+            ACTIVE.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted() && READY.size() < ConfigManager.getInt("seed_scout_queue", 4) && candidates.incrementAndGet() <= budget) {
+                        Evaluator eval = evaluator;
+                        if (eval == null) return;
+                        long seed = ThreadLocalRandom.current().nextLong();
+                        Sample s = eval.evaluate(seed, rules);
+                        String reason = reject(s, rules);
+                        if (reason != null) { LOGGER.debug("Seed {} rejected: {}", seed, reason); continue; }
+                        if (!offer(seed)) return;
+                        LOGGER.info("Seed {} approved (spawn {}, land {}%, village {})", seed, s.spawnBiome().isEmpty() ? "?" : s.spawnBiome().get(0), s.landPercent(), s.villageChunks() < 0 ? "none" : s.villageChunks() + " chunks");
+                    }
+                } catch (Throwable t) {
+                    LOGGER.warn("Seed scout worker failed", t);
+                } finally {
+                    if (ACTIVE.decrementAndGet() == 0 && candidates.get() > budget && READY.size() < ConfigManager.getInt("seed_scout_queue", 4)) {
+                        LOGGER.warn("Seed scout found only {} seeds in {} candidates ({} s); the rules may be too strict", READY.size(), budget, (System.nanoTime() - t0) / 1_000_000_000L);
+                    }
+                }
+            });
+        }
+    }
+
+    // Another worker may have filled the queue while this seed was screened
+    private static synchronized boolean offer(long seed) {
+        if (READY.size() >= ConfigManager.getInt("seed_scout_queue", 4)) return false;
+        READY.addLast(seed);
+        save();
+        return true;
+    }
+
+    // Null when approved, otherwise the first rule that failed
+    static String reject(Sample s, Rules rules) {
+        if (!rules.allowSpawn().isEmpty() && s.spawnBiome().stream().noneMatch(rules.allowSpawn()::contains)) return "spawn biome not allowed";
+        for (String b : s.spawnBiome()) if (rules.denySpawn().contains(b)) return "spawn biome " + b;
+        if (s.landPercent() < rules.minLandPercent()) return "land " + s.landPercent() + "%";
+        if (rules.maxVillageChunks() > 0 && (s.villageChunks() < 0 || s.villageChunks() > rules.maxVillageChunks())) return "no village within " + rules.maxVillageChunks() + " chunks";
+        return null;
+    }
+
+    // First line is the fingerprint the seeds were approved under
+    private static void load() {
+        Path file = runDir.resolve(FILE_NAME);
+        READY.clear();
+        if (!Files.isRegularFile(file)) return;
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals("# " + fingerprint)) {
+                LOGGER.info("Scouting rules or Minecraft version changed; discarding queued seeds");
+                Files.deleteIfExists(file);
+                return;
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                try { READY.addLast(Long.parseLong(line.trim())); } catch (NumberFormatException ignored) {}
+            }
+        } catch (IOException e) {
+            LOGGER.info("Could not read {}: {}", FILE_NAME, e.toString());
+        }
+    }
+
+    private static synchronized void save() {
+        Path dir = runDir;
+        if (dir == null) return;
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + fingerprint);
+        for (Long seed : READY) lines.add(Long.toString(seed));
+        Path file = dir.resolve(FILE_NAME);
+        Path tmp = dir.resolve(FILE_NAME + ".tmp");
+        try {
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.info("Could not save {}: {}", FILE_NAME, e.toString());
+        }
+    }
+}
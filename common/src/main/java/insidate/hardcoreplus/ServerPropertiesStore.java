@@ -0,0 +1,151 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Shared view of server.properties. Parsed content is cached per file and reused while its
+ * size and mtime are unchanged. Edits rewrite only the affected lines, so ordering and comments
+ * survive, and go through a temp file + fsync + atomic rename so a crash never truncates the file.
+ */
+public final class ServerPropertiesStore {
+    private ServerPropertiesStore() {}
+
+    public static final String FILE_NAME = "server.properties";
+
+    private record Cached(long size, long mtime, Charset charset, String text, Map<String, String> values) {}
+
+    private static final Map<Path, Cached> CACHE = new HashMap<>();
+
+    /** Parsed key/values (unmodifiable; empty when the file does not exist). */
+    public static Map<String, String> read(Path runDir) throws IOException {
+        Cached c = load(runDir.resolve(FILE_NAME));
+        return c == null ? Map.of() : c.values();
+    }
+
+    public static String get(Path runDir, String key, String def) {
+        try { return read(runDir).getOrDefault(key, def); } catch (IOException e) { return def; }
+    }
+
+    public static String levelName(Path runDir) { return get(runDir, "level-name", "world"); }
+
+    // Set the given keys in place (missing ones are appended); everything else is kept byte-for-byte
+    public static synchronized void update(Path runDir, Map<String, String> edits) throws IOException {
+        Path file = runDir.resolve(FILE_NAME);
+        Cached c = load(file);
+        String text = c == null ? "" : c.text();
+        Charset cs = c == null ? StandardCharsets.UTF_8 : c.charset();
+        Map<String, String> pending = new LinkedHashMap<>(edits);
+        List<String> out = new ArrayList<>();
+        String[] lines = text.split("\r?\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (i == lines.length - 1 && line.isEmpty()) break;
+            String key = keyOf(line);
+            // A logical line may continue over several physical lines; keep them together
+            int end = i;
+            while (key != null && endsWithContinuation(lines[end]) && end + 1 < lines.length) end++;
+            if (key != null && pending.containsKey(key)) {
+                out.add(escape(key, true) + "=" + escape(pending.remove(key), false));
+            } else {
+                for (int j = i; j <= end; j++) out.add(lines[j]);
+            }
+            i = end;
+        }
+        for (Map.Entry<String, String> e : pending.entrySet()) out.add(escape(e.getKey(), true) + "=" + escape(e.getValue(), false));
+        String eol = text.contains("\r\n") || (text.isEmpty() && System.lineSeparator().equals("\r\n")) ? "\r\n" : "\n";
+        String newText = String.join(eol, out) + eol;
+        writeAtomically(file, newText.getBytes(cs));
+        load(file);
+    }
+
+    private static synchronized Cached load(Path file) throws IOException {
+        BasicFileAttributes attrs;
+        try { attrs = Files.readAttributes(file, BasicFileAttributes.class); } catch (IOException e) { CACHE.remove(file); return null; }
+        Cached c = CACHE.get(file);
+        long mtime = attrs.lastModifiedTime().toMillis();
+        if (c != null && c.size() == attrs.size() && c.mtime() == mtime) return c;
+        byte[] raw = Files.readAllBytes(file);
+        Charset cs = StandardCharsets.UTF_8;
+        String text;
+        // Same fallback as the server: UTF-8 first, ISO-8859-1 for legacy files
+        try { text = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(raw)).toString(); } catch (CharacterCodingException e) { cs = StandardCharsets.ISO_8859_1; text = new String(raw, cs); }
+        Properties p = new Properties();
+        p.load(new StringReader(text));
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String k : p.stringPropertyNames()) values.put(k, p.getProperty(k));
+        c = new Cached(raw.length, mtime, cs, text, Collections.unmodifiableMap(values));
+        CACHE.put(file, c);
+        return c;
+    }
+
+    private static void writeAtomically(Path file, byte[] data) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".hcp-tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(data);
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Key of a key=value line, or null for blank/comment lines (java.util.Properties rules)
+    private static String keyOf(String line) {
+        int i = 0, n = line.length();
+        while (i < n && Character.isWhitespace(line.charAt(i))) i++;
+        if (i == n || line.charAt(i) == '#' || line.charAt(i) == '!') return null;
+        StringBuilder key = new StringBuilder();
+        for (; i < n; i++) {
+            char ch = line.charAt(i);
+            if (ch == '\\' && i + 1 < n) { key.append(line.charAt(++i)); continue; }
+            if (ch == '=' || ch == ':' || Character.isWhitespace(ch)) break;
+            key.append(ch);
+        }
+        return key.toString();
+    }
+
+    private static boolean endsWithContinuation(String line) {
+        int slashes = 0;
+        for (int i = line.length() - 1; i >= 0 && line.charAt(i) == '\\'; i--) slashes++;
+        return slashes % 2 == 1;
+    }
+
+    private static String escape(String s, boolean key) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '=', ':', '#', '!' -> sb.append('\\').append(ch);
+                case ' ' -> sb.append(key || i == 0 ? "\\ " : " ");
+                default -> sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cheapest-first tree snapshot: copy-on-write reflink (btrfs/XFS via cp --reflink=always),
+ * then per-file hardlinks when source and target share a filesystem, then a byte copy.
+ */
+public final class Snapshot {
+    private Snapshot() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+
+    /** How a tree ended up in its destination; MOVE, ARCHIVE and DEDUP are used by callers that renamed, archived or deduplicated instead. */
+    public enum Strategy { MOVE, REFLINK, HARDLINK, COPY, ARCHIVE, DEDUP }
+
+    /**
+     * Snapshot source into target and return the strategy that succeeded. Hardlinks share data
+     * with the source, so only allow them when one side is never written in place again.
+     */
+    public static Strategy snapshot(Path source, Path target, boolean allowHardlink, Predicate<Path> skip, TreeOps.CopyListener listener) {
+        return link(source, target, allowHardlink, skip).orElseGet(() -> copy(source, target, skip, listener));
+    }
+
+    /** Reflink or hardlink only (when snapshot_backups is on); empty when the caller has to copy. */
+    public static Optional<Strategy> link(Path source, Path target, boolean allowHardlink, Predicate<Path> skip) {
+        if (!ConfigManager.getBoolean("snapshot_backups")) return Optional.empty();
+        if (reflink(source, target)) return Optional.of(Strategy.REFLINK);
+        if (allowHardlink) {
+            TreeOps.Result r = TreeOps.linkTree(source, target, skip);
+            if (r.failures() == 0) return Optional.of(Strategy.HARDLINK);
+            LOGGER.info("Hardlink snapshot failed for {} files (different filesystem?); falling back to copy", r.failures());
+            TreeOps.deleteTree(target);
+        }
+        return Optional.empty();
+    }
+
+    /** Independent copy of source for a tree that will be written in place: reflink, else a byte copy (never hardlinks). */
+    public static Strategy cloneTree(Path source, Path target, Predicate<Path> skip) {
+        if (reflink(source, target)) {
+            // cp cannot filter; remove what skip would have left out
+            if (skip != null) {
+                try {
+                    for (String f : TreeOps.listFiles(target, skip.negate())) Files.deleteIfExists(target.resolve(f));
+                } catch (IOException e) {
+                    LOGGER.info("Could not prune reflinked copy {}: {}", target, e.toString());
+                }
+            }
+            return Strategy.REFLINK;
+        }
+        return copy(source, target, skip, null);
+    }
+
+    // Last resort: parallel byte copy; files already present with the same size are kept
+    public static Strategy copy(Path source, Path target, Predicate<Path> skip, TreeOps.CopyListener listener) {
+        TreeOps.Result r = TreeOps.copyTree(source, target, skip, true, listener);
+        LOGGER.info("Copied {} files ({} bytes) with {} threads{}", r.files(), r.bytes(), TreeOps.parallelism(), r.failures() > 0 ? ", " + r.failures() + " failures" : "");
+        return Strategy.COPY;
+    }
+
+    private static boolean reflink(Path source, Path target) {
+        if (!System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("linux")) return false;
+        if (Files.exists(target)) return false;
+        try {
+            Process proc = new ProcessBuilder("cp", "-R", "--reflink=always", source.toAbsolutePath().toString(), target.toAbsolutePath().toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (proc.waitFor(10, TimeUnit.MINUTES) && proc.exitValue() == 0) {
+                // cp cannot filter; drop the lock file the same way a copy would skip it
+                Files.deleteIfExists(target.resolve("session.lock"));
+                return true;
+            }
+            proc.destroyForcibly();
+        } catch (IOException e) {
+            LOGGER.debug("Reflink unavailable: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        TreeOps.deleteTree(target);
+        return false;
+    }
+}
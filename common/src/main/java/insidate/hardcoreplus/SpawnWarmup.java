@@ -0,0 +1,111 @@
+package insidate.hardcoreplus;
+
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Post-rotation warm-up: loads (and so generates) the chunks within warmup_radius_chunks of world
+ * spawn in a square spiral, spending about warmup_ms_per_tick per server tick. While it runs,
+ * non-op logins can be refused so the first players do not land in ungenerated terrain.
+ * The budget is checked between chunks: each chunk load blocks until it is generated, so a tick
+ * can overrun the budget by one chunk's generation time but never starts another chunk after it.
+ */
+public final class SpawnWarmup {
+    private SpawnWarmup() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+
+    /** Loads the chunk at the given chunk coordinates to full status (blocking, server thread). */
+    public interface ChunkLoader {
+        void load(int chunkX, int chunkZ);
+    }
+
+    private static final class State {
+        final int centerX, centerZ, total;
+        final ChunkLoader loader;
+        final Supplier<? extends CompletionStage<?>> onDone;
+        final long t0 = System.nanoTime();
+        int done, x, z, dx = 0, dz = -1;
+
+        State(int centerX, int centerZ, int radius, ChunkLoader loader, Supplier<? extends CompletionStage<?>> onDone) {
+            this.centerX = centerX; this.centerZ = centerZ; this.loader = loader; this.onDone = onDone;
+            this.total = (2 * radius + 1) * (2 * radius + 1);
+        }
+
+        // Square spiral: every ring around the center is finished before the next one starts
+        void step() {
+            loader.load(centerX + x, centerZ + z);
+            done++;
+            if (x == z || (x < 0 && x == -z) || (x > 0 && x == 1 - z)) { int t = dx; dx = -dz; dz = t; }
+            x += dx;
+            z += dz;
+        }
+    }
+
+    private static volatile boolean rotated;
+    private static volatile State state;
+    // Work started by onDone (e.g. a template copy); joins stay held until it completes
+    private static volatile CompletionStage<?> finishing;
+
+    // Called when this start applied a journaled rotation, i.e. the world is brand new
+    public static void rotationStaged() { rotated = true; }
+
+    /**
+     * Start after a rotation, covering at least minRadius (e.g. for a world template) even when
+     * warmup_radius_chunks is smaller. onDone (nullable) runs on the server thread once every chunk is
+     * loaded; joins stay held until the stage it returns completes.
+     */
+    public static void start(int spawnChunkX, int spawnChunkZ, int minRadius, ChunkLoader loader, Supplier<? extends CompletionStage<?>> onDone) {
+        int radius = Math.max(minRadius, ConfigManager.current().getInt("warmup_radius_chunks", 0));
+        if (!rotated || radius <= 0) return;
+        rotated = false;
+        state = new State(spawnChunkX, spawnChunkZ, radius, loader, onDone);
+        LOGGER.info("Pre-generating {} chunks around spawn ({}, {})", state.total, spawnChunkX, spawnChunkZ);
+    }
+
+    public static void tick() {
+        State s = state;
+        if (s == null) return;
+        long deadline = System.nanoTime() + Math.max(1, ConfigManager.current().getInt("warmup_ms_per_tick", 30)) * 1_000_000L;
+        try {
+            while (s.done < s.total && System.nanoTime() < deadline) s.step();
+        } catch (Throwable t) {
+            LOGGER.warn("Spawn warm-up failed at chunk {}/{}; opening the server", s.done, s.total, t);
+            state = null;
+            return;
+        }
+        if (s.done < s.total) return;
+        state = null;
+        Metrics.WARMUP_SECONDS.observeSince(s.t0);
+        LOGGER.info("Spawn warm-up finished: {} chunks in {} s", s.total, String.format(Locale.ROOT, "%.1f", (System.nanoTime() - s.t0) / 1e9));
+        if (s.onDone == null) return;
+        CompletionStage<?> f = s.onDone.get();
+        finishing = f;
+        f.whenComplete((r, t) -> finishing = null);
+    }
+
+    public static void stop() { state = null; finishing = null; }
+
+    public static boolean isRunning() { return state != null || finishing != null; }
+
+    /** True while non-op players should be kept out. */
+    public static boolean holdJoins() { return isRunning() && ConfigManager.current().getBoolean("warmup_hold_joins"); }
+
+    // Reason shown to players refused by holdJoins()
+    public static String holdMessage() {
+        State s = state;
+        if (s == null) return "The new world is finishing up. Please rejoin in a moment.";
+        return "The new world is still being prepared (" + (100L * s.done / s.total) + "%). Please rejoin in a moment.";
+    }
+
+    // "120/1089 chunks (11%)", or null when no warm-up is running
+    public static String progress() {
+        State s = state;
+        if (s == null) return finishing != null ? "finishing" : null;
+        return s.done + "/" + s.total + " chunks (" + (100L * s.done / s.total) + "%)";
+    }
+}
@@ -0,0 +1,313 @@
+package insidate.hardcoreplus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parallel directory-tree copy and delete on a bounded fork-join pool (io_parallelism).
+ * Each directory is its own task, so no global path list is built or sorted; deletion is
+ * post-order per directory and copies use FileChannel.transferTo.
+ */
+public final class TreeOps {
+    private TreeOps() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    private static ForkJoinPool pool;
+
+    /** Totals for one tree operation; failures are files/dirs that could not be processed. */
+    public record Result(long files, long bytes, long failures) {}
+
+    /** Called after each file copied (from worker threads). */
+    public interface CopyListener { void copied(Path source, long bytes); }
+
+    public static int parallelism() {
+        int configured = ConfigManager.getInt("io_parallelism", 0);
+        if (configured > 0) return configured;
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Copy source into target. Files matching skip are left out; when skipExisting is set, target
+     * files of equal size are kept (lets an interrupted copy resume).
+     */
+    public static Result copyTree(Path source, Path target, Predicate<Path> skip, boolean skipExisting, CopyListener listener) {
+        Counters c = new Counters();
+        run(new CopyDir(source, target, skip, skipExisting, false, listener, c));
+        return c.result();
+    }
+
+    /**
+     * Copy the listed files (paths relative to source, '/'-separated) into target, forcing each to
+     * disk; entries ending in '/' are directories and only created. Used for journaled copies that
+     * resume from a position in a fixed list (see {@link #listTree}).
+     */
+    public static Result copyFiles(Path source, Path target, List<String> files, CopyListener listener) {
+        Counters c = new Counters();
+        run(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<CopyFile> tasks = new ArrayList<>(files.size());
+                for (String f : files) {
+                    Path dest = target.resolve(f);
+                    try {
+                        Files.createDirectories(f.endsWith("/") ? dest : dest.getParent());
+                    } catch (IOException e) {
+                        c.failures.incrementAndGet();
+                        continue;
+                    }
+                    if (!f.endsWith("/")) tasks.add(new CopyFile(source.resolve(f), dest, false, false, true, listener, c));
+                }
+                invokeAll(tasks);
+            }
+        });
+        return c.result();
+    }
+
+    /** Sorted '/'-separated paths of the regular files under dir, minus those matching skip. */
+    public static List<String> listFiles(Path dir, Predicate<Path> skip) throws IOException {
+        List<String> out = new ArrayList<>();
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.filter(p -> Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS) && (skip == null || !skip.test(p)))
+                    .forEach(p -> out.add(dir.relativize(p).toString().replace(File.separatorChar, '/')));
+        }
+        out.sort(null);
+        return out;
+    }
+
+    /**
+     * Like {@link #listFiles}, plus every directory below dir with a trailing '/', so a copy from
+     * the list keeps empty directories.
+     */
+    public static List<String> listTree(Path dir, Predicate<Path> skip) throws IOException {
+        List<String> out = new ArrayList<>();
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.forEach(p -> {
+                if (p.equals(dir)) return;
+                String rel = dir.relativize(p).toString().replace(File.separatorChar, '/');
+                if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) out.add(rel + "/");
+                else if (Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS) && (skip == null || !skip.test(p))) out.add(rel);
+            });
+        }
+        out.sort(null);
+        return out;
+    }
+
+    /**
+     * "list-sha256:" plus the SHA-256 of every path under dir with its size, in {@link #listTree}
+     * order. Fingerprints a directory backup without reading file contents, so a later listing
+     * shows whether files went missing, appeared or changed size.
+     */
+    public static String listingChecksum(Path dir) throws IOException {
+        MessageDigest md;
+        try { md = MessageDigest.getInstance("SHA-256"); } catch (NoSuchAlgorithmException e) { throw new IllegalStateException(e); }
+        for (String rel : listTree(dir, null)) {
+            long size = rel.endsWith("/") ? 0 : Files.size(dir.resolve(rel));
+            md.update((rel + "\t" + size + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return "list-sha256:" + HexFormat.of().formatHex(md.digest());
+    }
+
+    /** Recreate source's directories under target and hard-link every file; fails per file on cross-device links. */
+    public static Result linkTree(Path source, Path target, Predicate<Path> skip) {
+        Counters c = new Counters();
+        run(new CopyDir(source, target, skip, false, true, null, c));
+        return c.result();
+    }
+
+    public static Result deleteTree(Path dir) {
+        Counters c = new Counters();
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) return c.result();
+        if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) {
+            deleteFile(dir, c);
+            return c.result();
+        }
+        run(new DeleteDir(dir, c));
+        return c.result();
+    }
+
+    // Total size of regular files under dir (0 when missing)
+    public static long sizeOf(Path dir) { return measure(dir).bytes(); }
+
+    /** File count and total size under dir, without following links. */
+    public static Result measure(Path dir) {
+        Counters c = new Counters();
+        if (Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) run(new SizeDir(dir, c));
+        return c.result();
+    }
+
+    private static void run(RecursiveAction root) {
+        pool().invoke(root);
+    }
+
+    // Shared by all tree operations; replaced when io_parallelism changes. The old pool is not shut
+    // down, as a caller may still be submitting to it; its idle workers exit on their own.
+    private static synchronized ForkJoinPool pool() {
+        int n = parallelism();
+        if (pool == null || pool.getParallelism() != n) pool = new ForkJoinPool(n);
+        return pool;
+    }
+
+    private static final class Counters {
+        final AtomicLong files = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+
+        Result result() { return new Result(files.get(), bytes.get(), failures.get()); }
+    }
+
+    private static final class CopyDir extends RecursiveAction {
+        private final Path source, target;
+        private final Predicate<Path> skip;
+        private final boolean skipExisting, link;
+        private final CopyListener listener;
+        private final Counters c;
+
+        CopyDir(Path source, Path target, Predicate<Path> skip, boolean skipExisting, boolean link, CopyListener listener, Counters c) {
+            this.source = source; this.target = target; this.skip = skip; this.skipExisting = skipExisting; this.link = link; this.listener = listener; this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> subtasks = new ArrayList<>();
+            try {
+                Files.createDirectories(target);
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(source)) {
+                    for (Path src : ds) {
+                        Path dest = target.resolve(src.getFileName().toString());
+                        if (Files.isDirectory(src, LinkOption.NOFOLLOW_LINKS)) {
+                            subtasks.add(new CopyDir(src, dest, skip, skipExisting, link, listener, c));
+                        } else if (skip == null || !skip.test(src)) {
+                            subtasks.add(new CopyFile(src, dest, skipExisting, link, false, listener, c));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                c.failures.incrementAndGet();
+                LOGGER.info("Error copying directory {} (continuing): {}", source, e.toString());
+            }
+            invokeAll(subtasks);
+        }
+    }
+
+    private static final class CopyFile extends RecursiveAction {
+        private final Path source, target;
+        private final boolean skipExisting, link, sync;
+        private final CopyListener listener;
+        private final Counters c;
+
+        CopyFile(Path source, Path target, boolean skipExisting, boolean link, boolean sync, CopyListener listener, Counters c) {
+            this.source = source; this.target = target; this.skipExisting = skipExisting; this.link = link; this.sync = sync; this.listener = listener; this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            if (link) {
+                try {
+                    Files.createLink(target, source);
+                    c.files.incrementAndGet();
+                } catch (IOException | UnsupportedOperationException e) {
+                    c.failures.incrementAndGet();
+                }
+                return;
+            }
+            try {
+                long size = Files.size(source);
+                if (skipExisting && Files.exists(target) && Files.size(target) == size) return;
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long pos = 0;
+                    while (pos < size) {
+                        long n = in.transferTo(pos, size - pos, out);
+                        if (n <= 0) break;
+                        pos += n;
+                    }
+                    if (sync) out.force(false);
+                }
+                c.files.incrementAndGet();
+                c.bytes.addAndGet(size);
+                if (listener != null) listener.copied(source, size);
+            } catch (IOException e) {
+                c.failures.incrementAndGet();
+                LOGGER.info("Error copying file to backup (continuing): {}", source);
+            }
+        }
+    }
+
+    private static final class DeleteDir extends RecursiveAction {
+        private final Path dir;
+        private final Counters c;
+
+        DeleteDir(Path dir, Counters c) { this.dir = dir; this.c = c; }
+
+        @Override
+        protected void compute() {
+            List<DeleteDir> subdirs = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                        DeleteDir task = new DeleteDir(p, c);
+                        task.fork();
+                        subdirs.add(task);
+                    } else {
+                        deleteFile(p, c);
+                    }
+                }
+            } catch (IOException e) {
+                c.failures.incrementAndGet();
+            }
+            for (DeleteDir task : subdirs) task.join();
+            try { Files.deleteIfExists(dir); } catch (IOException e) { c.failures.incrementAndGet(); }
+        }
+    }
+
+    private static final class SizeDir extends RecursiveAction {
+        private final Path dir;
+        private final Counters c;
+
+        SizeDir(Path dir, Counters c) { this.dir = dir; this.c = c; }
+
+        @Override
+        protected void compute() {
+            List<SizeDir> subdirs = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) subdirs.add(new SizeDir(p, c));
+                    else { try { c.bytes.addAndGet(Files.size(p)); c.files.incrementAndGet(); } catch (IOException ignored) {} }
+                }
+            } catch (IOException ignored) {}
+            invokeAll(subdirs);
+        }
+    }
+
+    private static void deleteFile(Path p, Counters c) {
+        try {
+            long size = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).size();
+            Files.deleteIfExists(p);
+            c.files.incrementAndGet();
+            c.bytes.addAndGet(size);
+        } catch (IOException e) {
+            c.failures.incrementAndGet();
+        }
+    }
+}
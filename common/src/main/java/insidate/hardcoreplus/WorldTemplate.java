@@ -0,0 +1,176 @@
+package insidate.hardcoreplus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pristine pre-generated worlds for seed_mode=custom under hc_templates/&lt;key&gt;/. The first rotation
+ * to a custom seed warms up spawn plus template_radius_chunks and captures the fresh world; later
+ * rotations clone it (reflink or parallel copy, never hardlinks, since the server rewrites region
+ * files in place) instead of generating the same terrain again. The key covers the seed, Minecraft
+ * version, enabled datapacks and generator settings, so any change simply selects a new template
+ * and the stale one is pruned.
+ */
+public final class WorldTemplate {
+    private WorldTemplate() {}
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hardcoreplus");
+    public static final String DIR_NAME = "hc_templates";
+    private static final String META_FILE = "template.properties";
+    private static final String WORLD_DIR = "world";
+    private static final String BUILDING_PREFIX = ".building-";
+    // Per-player and per-run state stays out of the template
+    private static final Set<String> SKIP_DIRS = Set.of("playerdata", "advancements", "stats");
+    private static final Set<String> SKIP_FILES = Set.of("session.lock", "level.dat_old");
+    private static final Predicate<Path> SKIP = p -> SKIP_FILES.contains(p.getFileName().toString())
+            || (p.getParent() != null && p.getParent().getFileName() != null && SKIP_DIRS.contains(p.getParent().getFileName().toString()));
+
+    private static final ExecutorService IO = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hcp-template-", 0).factory());
+
+    // Reported by the loader once the server is up; templates are neither used nor built before that
+    private static volatile String version, datapacks;
+
+    public static int radius() { return Math.max(0, ConfigManager.current().getInt("template_radius_chunks", 8)); }
+
+    /** Record the running server's version and enabled datapacks, then prune templates that no longer match. */
+    public static void serverStarted(Path runDir, String mcVersion, Collection<String> enabledPacks) {
+        version = mcVersion;
+        datapacks = String.join(",", new TreeSet<>(enabledPacks));
+        Thread.ofVirtual().name("hcp-template-prune").start(() -> prune(runDir));
+    }
+
+    /** True when this start should warm up and capture a template for the world's seed. */
+    public static boolean shouldCapture(Path runDir, long seed) {
+        Optional<String> key = key(runDir);
+        return key.isPresent() && ConfigManager.current().customLevelSeed().equals(Optional.of(seed)) && !Files.isRegularFile(runDir.resolve(DIR_NAME).resolve(key.get()).resolve(META_FILE));
+    }
+
+    /**
+     * Copy the freshly generated world into a new template. saveOff runs first, on the server thread,
+     * and must flush every chunk to disk and then disable saving (save-all flush, save-off), so the
+     * server writes nothing while the copy runs on an I/O thread. saveOn is then handed to
+     * serverThread. The returned stage completes after that, and the spawn warm-up keeps non-op
+     * joins held until then.
+     */
+    public static CompletableFuture<Void> capture(Path runDir, String levelName, long seed, Runnable saveOff, Runnable saveOn, Executor serverThread) {
+        Optional<String> key = key(runDir);
+        if (key.isEmpty()) return CompletableFuture.completedFuture(null);
+        try {
+            saveOff.run();
+        } catch (RuntimeException e) {
+            saveOn.run();
+            LOGGER.warn("Failed to flush the world for template capture", e);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> copy(runDir, key.get(), levelName, seed), IO)
+                .whenCompleteAsync((r, t) -> saveOn.run(), serverThread);
+    }
+
+    private static void copy(Path runDir, String key, String levelName, long seed) {
+        Path root = runDir.resolve(DIR_NAME);
+        Path building = root.resolve(BUILDING_PREFIX + key);
+        long t0 = System.nanoTime();
+        try {
+            TreeOps.deleteTree(building);
+            Files.createDirectories(building);
+            Snapshot.Strategy strategy = Snapshot.cloneTree(runDir.resolve(levelName), building.resolve(WORLD_DIR), SKIP);
+            Properties meta = new Properties();
+            meta.setProperty("seed", Long.toString(seed));
+            meta.setProperty("version", version);
+            meta.setProperty("datapacks", datapacks);
+            meta.setProperty("generator", generator(runDir));
+            meta.setProperty("radius", Integer.toString(radius()));
+            meta.setProperty("created", Long.toString(System.currentTimeMillis()));
+            try (var w = Files.newBufferedWriter(building.resolve(META_FILE))) { meta.store(w, "HardcorePlus+ world template"); }
+            Path target = root.resolve(key);
+            TreeOps.deleteTree(target);
+            Files.move(building, target, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("Captured world template {} for seed {} ({}) in {} ms", key, seed, strategy, (System.nanoTime() - t0) / 1_000_000L);
+        } catch (IOException | RuntimeException e) {
+            TreeOps.deleteTree(building);
+            LOGGER.warn("Failed to capture world template for seed {}", seed, e);
+        }
+    }
+
+    /**
+     * Clone the template for seed into runDir/newLevelName. Returns how it was copied, or empty when
+     * no matching template exists (the world is then generated as usual).
+     */
+    public static Optional<Snapshot.Strategy> cloneInto(Path runDir, String newLevelName, long seed) {
+        Optional<String> key = key(runDir);
+        if (key.isEmpty() || !ConfigManager.current().customLevelSeed().equals(Optional.of(seed))) return Optional.empty();
+        Path template = runDir.resolve(DIR_NAME).resolve(key.get());
+        Path target = runDir.resolve(newLevelName);
+        if (!Files.isRegularFile(template.resolve(META_FILE)) || Files.exists(target)) return Optional.empty();
+        long t0 = System.nanoTime();
+        try {
+            Snapshot.Strategy strategy = Snapshot.cloneTree(template.resolve(WORLD_DIR), target, null);
+            LOGGER.info("Cloned world template {} into '{}' ({}) in {} ms", key.get(), newLevelName, strategy, (System.nanoTime() - t0) / 1_000_000L);
+            return Optional.of(strategy);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to clone world template {}; the world will be generated instead", key.get(), e);
+            TreeOps.deleteTree(target);
+            return Optional.empty();
+        }
+    }
+
+    // Seed, version, datapacks and generator settings; empty while unknown or when templates are off
+    private static Optional<String> key(Path runDir) {
+        Optional<Long> seed = ConfigManager.current().customLevelSeed();
+        if (seed.isEmpty() || radius() <= 0 || version == null) return Optional.empty();
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update((version + "\n" + datapacks + "\n" + generator(runDir)).getBytes(StandardCharsets.UTF_8));
+            return Optional.of(Long.toHexString(seed.get()) + "-" + HexFormat.of().formatHex(md.digest(), 0, 6));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // server.properties settings that shape terrain besides the seed
+    private static String generator(Path runDir) {
+        return String.join("|",
+                ServerPropertiesStore.get(runDir, "level-type", "minecraft:normal").toLowerCase(Locale.ROOT),
+                ServerPropertiesStore.get(runDir, "generator-settings", "{}"),
+                ServerPropertiesStore.get(runDir, "generate-structures", "true"));
+    }
+
+    // Only while templates are in use: switching them off (or to another seed mode) keeps the captured worlds
+    private static void prune(Path runDir) {
+        Path root = runDir.resolve(DIR_NAME);
+        Optional<String> key = key(runDir);
+        if (key.isEmpty() || !Files.isDirectory(root)) return;
+        String keep = key.get();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(root)) {
+            for (Path dir : ds) {
+                String name = dir.getFileName().toString();
+                if (name.equals(keep) || name.equals(BUILDING_PREFIX + keep)) continue;
+                LOGGER.info("Removing stale world template {}", dir.getFileName());
+                TreeOps.deleteTree(dir);
+            }
+        } catch (IOException e) {
+            LOGGER.info("Could not prune world templates: {}", e.toString());
+        }
+    }
+}
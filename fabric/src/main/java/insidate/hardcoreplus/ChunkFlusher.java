@@ -0,0 +1,32 @@
+package insidate.hardcoreplus;
+
+import insidate.hardcoreplus.mixin.ChunkLoadingManagerAccessor;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Saves dirty chunks under a per-tick budget while a restart countdown runs (see CountdownFlush)
+final class ChunkFlusher {
+    private ChunkFlusher() {}
+
+    private static final Map<RegistryKey<World>, CountdownFlush.Cursor<ChunkHolder>> CURSORS = new HashMap<>();
+
+    static void tick(MinecraftServer server) {
+        long budget = CountdownFlush.budgetNanos();
+        if (budget <= 0) { CURSORS.clear(); return; }
+        long deadline = System.nanoTime() + budget;
+        for (ServerWorld world : server.getWorlds()) {
+            if (world.savingDisabled) continue;
+            var manager = (ChunkLoadingManagerAccessor) world.getChunkManager().chunkLoadingManager;
+            int saved = CURSORS.computeIfAbsent(world.getRegistryKey(), k -> new CountdownFlush.Cursor<>())
+                    .run(() -> manager.hcp$chunkHolders().values(), manager::hcp$save, deadline);
+            Metrics.COUNTDOWN_CHUNKS_SAVED.add(saved);
+            if (System.nanoTime() >= deadline) break;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package insidate.hardcoreplus;
+
+import net.minecraft.entity.boss.BossBar;
+import net.minecraft.entity.boss.ServerBossBar;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+// Boss bar / action bar / chat output for RestartCountdown
+final class CountdownDisplay implements RestartCountdown.Display {
+    private final MinecraftServer server;
+    private final ServerBossBar bar = new ServerBossBar(Text.literal("Restart"), BossBar.Color.RED, BossBar.Style.PROGRESS);
+
+    CountdownDisplay(MinecraftServer server) { this.server = server; }
+
+    @Override
+    public void bossBar(int secondsLeft, float progress) {
+        bar.setName(label(secondsLeft));
+        bar.setPercent(progress);
+        // Adding is idempotent and also picks up players who joined mid-countdown
+        for (ServerPlayerEntity p : server.getPlayerManager().getPlayerList()) bar.addPlayer(p);
+    }
+
+    @Override
+    public void actionBar(int secondsLeft) {
+        Text msg = label(secondsLeft);
+        for (ServerPlayerEntity p : server.getPlayerManager().getPlayerList()) p.sendMessage(msg, true);
+    }
+
+    @Override
+    public void chat(int secondsLeft) {
+        server.getPlayerManager().broadcast(label(secondsLeft), false);
+    }
+
+    @Override
+    public void clear() { bar.clearPlayers(); }
+
+    private static Text label(int secondsLeft) {
+        return Text.empty()
+                .append(Text.literal("World reset in ").formatted(Formatting.GRAY))
+                .append(Text.literal(Integer.toString(secondsLeft)).formatted(Formatting.YELLOW, Formatting.BOLD))
+                .append(Text.literal(secondsLeft == 1 ? " second" : " seconds").formatted(Formatting.GRAY));
+    }
+}
@@ -1,11 +1,18 @@
 package insidate.hardcoreplus;
 
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.SharedConstants;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import org.slf4j.Logger;
@@ -13,17 +20,16 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public class Hardcoreplus implements ModInitializer {
     public static final String MOD_ID = "hardcoreplus";
@@ -42,111 +48,18 @@ public class Hardcoreplus implements ModInitializer {
         LOGGER.info("HardcorePlus+ initializing (Fabric)");
         ConfigManager.load();
 
-        // Pre-start rotation handler (backup/delete old world if marker exists)
+        // Pre-start rotation handler (applies a journaled rotation: stages the old world for backup/delete)
         ServerLifecycleEvents.SERVER_STARTING.register(server -> {
             try {
                 if (!server.isDedicated()) return;
             } catch (Throwable ignored) { return; }
 
-            try { ConfigManager.reload(); } catch (Throwable ignored) {}
+            try { Metrics.start(server.getRunDirectory()); } catch (Throwable t) { LOGGER.info("Failed to start metrics", t); }
             try {
-                var runDir = server.getRunDirectory();
-                var marker = runDir.resolve("hc_reset.flag");
-                if (!Files.exists(marker)) return;
-
-                LOGGER.info("hc_reset.flag detected; preparing to rotate world (Fabric)");
-
-                String levelName = "world";
-                try (var r = Files.newBufferedReader(marker)) {
-                    var mp = new Properties();
-                    mp.load(r);
-                    var fromMarker = mp.getProperty("old-level-name");
-                    if (fromMarker != null && !fromMarker.isBlank()) levelName = fromMarker;
-                } catch (IOException ignored) {
-                    var propsFile = runDir.resolve("server.properties");
-                    if (Files.exists(propsFile)) {
-                        try (var in = Files.newInputStream(propsFile)) {
-                            var p = new Properties();
-                            p.load(in);
-                            levelName = Optional.ofNullable(p.getProperty("level-name")).orElse(levelName);
-                        }
-                    }
-                }
-
-                var worldDir = runDir.resolve(levelName);
-                boolean doBackup = ConfigManager.getBoolean("backup_old_worlds");
-                boolean deleteInstead = ConfigManager.getBoolean("delete_instead_of_backup");
-                String backupFolderName = Optional.ofNullable(ConfigManager.get("backup_folder_name")).orElse("Old Worlds");
-
-                if (Files.exists(worldDir)) {
-                    if (doBackup && !deleteInstead) {
-                        var backupRoot = runDir.resolve(backupFolderName);
-                        if (!Files.exists(backupRoot)) Files.createDirectories(backupRoot);
-                        String format = Optional.ofNullable(ConfigManager.get("backup_name_format")).orElse("%name%_%ts%");
-                        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("uuuuMMdd-HHmmss").withZone(ZoneId.systemDefault());
-                        String ts = fmt.format(Instant.now());
-                        String id = UUID.randomUUID().toString().substring(0, 8);
-                        String backupName = format.replace("%name%", levelName).replace("%ts%", ts).replace("%id%", id);
-                        var backupTarget = backupRoot.resolve(backupName);
-                        boolean moved = false;
-                        try {
-                            Files.move(worldDir, backupTarget, StandardCopyOption.ATOMIC_MOVE);
-                            LOGGER.info("Moved old world to {}", backupTarget.toAbsolutePath());
-                            moved = true;
-                        } catch (IOException e) {
-                            LOGGER.info("Atomic move failed; attempting non-atomic move (expected on Windows if locked): {}", e.toString());
-                            try {
-                                Files.move(worldDir, backupTarget);
-                                moved = true;
-                            } catch (IOException ex) {
-                                LOGGER.info("Non-atomic move failed; will attempt copy fallback: {}", ex.toString());
-                            }
-                        }
-
-                        if (!moved) {
-                            try {
-                                Files.walk(worldDir).forEach(source -> {
-                                    try {
-                                        var dest = backupTarget.resolve(worldDir.relativize(source));
-                                        if (Files.isDirectory(source)) {
-                                            if (!Files.exists(dest)) Files.createDirectories(dest);
-                                        } else {
-                                            if (source.getFileName().toString().equalsIgnoreCase("session.lock")) {
-                                                LOGGER.info("Skipping locked file during backup copy: {}", source);
-                                                return;
-                                            }
-                                            Files.copy(source, dest);
-                                        }
-                                    } catch (IOException ex) {
-                                        LOGGER.info("Error copying file to backup (continuing): {}", source);
-                                    }
-                                });
-                                // delete original
-                                Files.walk(worldDir).sorted((a, b) -> b.compareTo(a)).forEach(p -> {
-                                    try { Files.deleteIfExists(p); } catch (IOException ignored2) {}
-                                });
-                                LOGGER.info("Copied old world to {} and deleted original", backupTarget.toAbsolutePath());
-                            } catch (IOException ex) {
-                                LOGGER.warn("Failed to copy-and-delete old world to backup", ex);
-                            }
-                        }
-                    } else {
-                        // delete
-                        try {
-                            Files.walk(worldDir).sorted((a, b) -> b.compareTo(a)).forEach(p -> {
-                                try { Files.deleteIfExists(p); } catch (IOException ignored2) {}
-                            });
-                            LOGGER.info("Deleted old world folder {}", worldDir.toAbsolutePath());
-                        } catch (IOException e) {
-                            LOGGER.warn("Failed to delete old world folder", e);
-                        }
-                    }
-                }
-
-                // remove marker
-                try { Files.deleteIfExists(marker); } catch (IOException ignored) {}
+                // Only an O(1) rename happens here; copy/delete runs in the background after SERVER_STARTED
+                if (BackupQueue.stage(server.getRunDirectory())) SpawnWarmup.rotationStaged();
             } catch (Throwable t) {
-                LOGGER.warn("Exception while handling hc_reset.flag (Fabric)", t);
+                LOGGER.warn("Exception while applying the rotation journal (Fabric)", t);
             }
         });
 
@@ -172,10 +85,10 @@ public class Hardcoreplus implements ModInitializer {
                             try { if (server.getSaveProperties() != null) isHardcore = server.getSaveProperties().isHardcore(); } catch (Throwable ignored) {}
                             if (!isHardcore) { source.sendFeedback(() -> Text.literal("World is not hardcore; aborting masskill."), false); return 0; }
 
-                            performMassKill(server);
-                            broadcastCommandRestart(server);
-                            requestResetAndStop(server);
-                            source.sendFeedback(() -> Text.literal("Mass-kill executed. Restart scheduled."), false);
+                            // The restart is scheduled once the last batch of kills is done
+                            Runnable reset = () -> { broadcastCommandRestart(server); requestResetAndStop(server); };
+                            if (!performMassKill(server, reset)) reset.run();
+                            source.sendFeedback(() -> Text.literal("Mass-kill started. Restart will be scheduled when it completes."), false);
                             return 1;
                         }))
                         .executes(ctx -> {
@@ -199,47 +112,30 @@ public class Hardcoreplus implements ModInitializer {
                         boolean isHardcore = false; try { if (server.getSaveProperties() != null) isHardcore = server.getSaveProperties().isHardcore(); } catch (Throwable ignored) {}
                         boolean propsHardcore = false;
                         try {
-                            var propsFile = server.getRunDirectory().resolve("server.properties");
-                            if (Files.exists(propsFile)) {
-                                var p = new Properties(); try (var in = Files.newInputStream(propsFile)) { p.load(in); }
-                                var hv = p.getProperty("hardcore"); propsHardcore = hv != null && (hv.equalsIgnoreCase("true") || hv.equalsIgnoreCase("1") || hv.equalsIgnoreCase("yes"));
-                            }
+                            var hv = ServerPropertiesStore.get(server.getRunDirectory(), "hardcore", null);
+                            propsHardcore = hv != null && (hv.equalsIgnoreCase("true") || hv.equalsIgnoreCase("1") || hv.equalsIgnoreCase("yes"));
                         } catch (Throwable ignored) {}
-                        String msg = String.format("Hardcore (world): %s, server.properties: %s, Processing: %s, Online players: %d", isHardcore, propsHardcore, PROCESSING.get(), server.getPlayerManager().getPlayerList().size());
+                        int restartIn = RestartCountdown.secondsLeft();
+                        String warmup = SpawnWarmup.progress();
+                        String msg = String.format("Hardcore (world): %s, server.properties: %s, Processing: %s, Online players: %d, Restart: %s", isHardcore, propsHardcore, PROCESSING.get(), server.getPlayerManager().getPlayerList().size(), restartIn < 0 ? "none" : "in " + restartIn + "s")
+                                + (SeedScout.isEnabled() ? ", Scouted seeds: " + SeedScout.readyCount() : "")
+                                + (warmup == null ? "" : ", Spawn warm-up: " + warmup);
                         source.sendFeedback(() -> Text.literal(msg), false);
                         return 1;
                     }))
                     .then(CommandManager.literal("config").requires(src -> src.hasPermissionLevel(2)).executes(ctx -> {
-                        try { ConfigManager.reload(); } catch (Throwable ignored) {}
                         var source = ctx.getSource();
-                        String msg2 = String.join("\n",
-                                "HardcorePlus+ config:",
-                                "  new_level_name_format=" + String.valueOf(ConfigManager.get("new_level_name_format")),
-                                "  time_format=" + String.valueOf(ConfigManager.get("time_format")),
-                                "  force_new_seed=" + ConfigManager.getBoolean("force_new_seed"),
-                                "  seed_mode=" + String.valueOf(ConfigManager.get("seed_mode")),
-                                "  custom_seed=" + String.valueOf(ConfigManager.get("custom_seed")),
-                                "  backup_old_worlds=" + ConfigManager.getBoolean("backup_old_worlds"),
-                                "  delete_instead_of_backup=" + ConfigManager.getBoolean("delete_instead_of_backup"),
-                                "  backup_folder_name=" + String.valueOf(ConfigManager.get("backup_folder_name")),
-                                "  backup_name_format=" + String.valueOf(ConfigManager.get("backup_name_format")),
-                                "  restart_delay_seconds=" + ConfigManager.getInt("restart_delay_seconds", 10),
-                                "  auto_restart=" + ConfigManager.getBoolean("auto_restart")
-                        );
+                        StringBuilder sb = new StringBuilder("HardcorePlus+ config:");
+                        ConfigManager.current().values().forEach((k, v) -> sb.append("\n  ").append(k).append('=').append(v));
+                        String msg2 = sb.toString();
                         source.sendFeedback(() -> Text.literal(msg2), false);
                         return 1;
                     }))
                     .then(CommandManager.literal("preview").requires(src -> src.hasPermissionLevel(0)).executes(ctx -> {
-                        try { ConfigManager.reload(); } catch (Throwable ignored) {}
                         var source = ctx.getSource();
+                        ConfigSnapshot cfg = ConfigManager.current();
                         String oldLevelName = "world";
-                        try {
-                            var propsFile = source.getServer().getRunDirectory().resolve("server.properties");
-                            if (Files.exists(propsFile)) {
-                                var p = new Properties(); try (var in = Files.newInputStream(propsFile)) { p.load(in); }
-                                oldLevelName = Optional.ofNullable(p.getProperty("level-name")).orElse(oldLevelName);
-                            }
-                        } catch (Throwable ignored) {}
+                        try { oldLevelName = ServerPropertiesStore.levelName(source.getServer().getRunDirectory()); } catch (Throwable ignored) {}
 
                         String baseLevelName = oldLevelName;
                         try {
@@ -251,19 +147,12 @@ public class Hardcoreplus implements ModInitializer {
                         } catch (Throwable ignored) {}
                         baseLevelName = NameUtil.stripTimeSuffixes(baseLevelName);
 
-                        String timePattern = Optional.ofNullable(ConfigManager.get("time_format")).filter(s -> !s.isBlank()).orElse("HH-mm-ss_uuuu-MM-dd");
-                        DateTimeFormatter fmt = DateTimeFormatter.ofPattern(timePattern).withZone(ZoneId.systemDefault());
-                        String timeStr = fmt.format(Instant.now());
-                        String nameFormat = Optional.ofNullable(ConfigManager.get("new_level_name_format")).filter(s -> !s.isBlank()).orElse("%name%_%time%");
-                        String id = UUID.randomUUID().toString().substring(0, 8);
-                        String newLevelName = nameFormat.replace("%name%", baseLevelName).replace("%time%", timeStr).replace("%id%", id);
-                        newLevelName = NameUtil.sanitizeName(newLevelName);
+                        String newLevelName = cfg.newLevelName(baseLevelName, Instant.now(), UUID.randomUUID().toString().substring(0, 8));
 
                         String seedInfo = "(unchanged)";
-                        if (ConfigManager.getBoolean("force_new_seed")) {
-                            String seedMode = Optional.ofNullable(ConfigManager.get("seed_mode")).orElse("random").trim().toLowerCase();
-                            if (seedMode.equals("custom")) {
-                                String customSeed = Optional.ofNullable(ConfigManager.get("custom_seed")).orElse("");
+                        if (cfg.forceNewSeed()) {
+                            if (cfg.seedMode().equals("custom")) {
+                                String customSeed = cfg.customSeed();
                                 seedInfo = customSeed.isBlank() ? "<empty custom_seed> -> random" : customSeed;
                             } else {
                                 seedInfo = Long.toString(ThreadLocalRandom.current().nextLong());
@@ -279,6 +168,24 @@ public class Hardcoreplus implements ModInitializer {
                         ctx.getSource().sendFeedback(() -> Text.literal("HardcorePlus+ config reloaded."), false);
                         return 1;
                     }))
+                    .then(CommandManager.literal("metrics").requires(src -> src.hasPermissionLevel(2)).executes(ctx -> {
+                        String msg = "HardcorePlus+ metrics:\n  " + String.join("\n  ", Metrics.summary());
+                        ctx.getSource().sendFeedback(() -> Text.literal(msg), false);
+                        return 1;
+                    }))
+                    .then(CommandManager.literal("backups").requires(src -> src.hasPermissionLevel(2))
+                        .then(CommandManager.literal("list")
+                            .then(CommandManager.argument("page", IntegerArgumentType.integer(1)).executes(ctx -> listBackups(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "page"))))
+                            .executes(ctx -> listBackups(ctx.getSource(), 1)))
+                        .then(CommandManager.literal("info")
+                            .then(CommandManager.argument("name", StringArgumentType.greedyString()).executes(ctx -> {
+                                var source = ctx.getSource();
+                                var server = source.getServer();
+                                BackupIndex.infoAsync(BackupQueue.backupRoot(server.getRunDirectory()), StringArgumentType.getString(ctx, "name"))
+                                        .thenAcceptAsync(lines -> source.sendFeedback(() -> Text.literal(String.join("\n  ", lines)), false), server);
+                                return 1;
+                            })))
+                        .executes(ctx -> listBackups(ctx.getSource(), 1)))
                     .then(CommandManager.literal("reset").requires(src -> src.hasPermissionLevel(2))
                         .then(CommandManager.literal("confirm").executes(ctx -> {
                             var source = ctx.getSource();
@@ -289,6 +196,22 @@ public class Hardcoreplus implements ModInitializer {
                             source.sendFeedback(() -> Text.literal("Reset scheduled. Server will stop shortly."), false);
                             return 1;
                         }))
+                        .then(CommandManager.literal("cancel").executes(ctx -> {
+                            var source = ctx.getSource();
+                            var server = source.getServer();
+                            if (server == null) { source.sendFeedback(() -> Text.literal("Server not available."), false); return 0; }
+                            // Also reaches a rotation still being prepared or journaled before its countdown started
+                            boolean cancelled = true;
+                            try { cancelled = RotationPrep.cancel(server.getRunDirectory()); } catch (Throwable t) { LOGGER.warn("Failed to revert pending rotation", t); source.sendFeedback(() -> Text.literal("Restart cancelled, but the pending rotation could not be fully reverted; see the server log."), false); }
+                            if (!cancelled) { source.sendFeedback(() -> Text.literal("No restart is scheduled."), false); return 0; }
+                            try {
+                                Text msg = Text.empty()
+                                        .append(Text.literal("Restart cancelled").formatted(Formatting.GREEN, Formatting.BOLD))
+                                        .append(Text.literal(" by " + source.getName() + ".").formatted(Formatting.GRAY));
+                                server.getPlayerManager().broadcast(msg, false);
+                            } catch (Throwable t) { LOGGER.info("Failed to broadcast restart cancellation", t); }
+                            return 1;
+                        }))
                         .executes(ctx -> {
                             var source = ctx.getSource();
                             UUID who = CONSOLE_UUID;
@@ -312,10 +235,14 @@ public class Hardcoreplus implements ModInitializer {
                             sb.append("  /hcp masskill confirm - Confirm mass-kill\n");
                             sb.append("  /hcp reset - Schedule world rotation (confirm required)\n");
                             sb.append("  /hcp reset confirm - Confirm rotation and stop server\n");
+                            sb.append("  /hcp reset cancel - Cancel a scheduled restart and keep the current world\n");
                             sb.append("  /hcp config - Show effective config\n");
                             sb.append("  /hcp reload - Reload config file\n");
+                            sb.append("  /hcp metrics - Show rotation timings and counters\n");
+                            sb.append("  /hcp backups list [page] - List backed up worlds, newest first\n");
+                            sb.append("  /hcp backups info <name> - Show a backup's level-name, seed, run time, size and checksum\n");
                         } else {
-                            sb.append("  (Op-only) masskill, reset, config, reload\n");
+                            sb.append("  (Op-only) masskill, reset, config, reload, backups\n");
                         }
                         src.sendFeedback(() -> Text.literal(sb.toString()), false);
                         return 1;
@@ -324,7 +251,7 @@ public class Hardcoreplus implements ModInitializer {
                         var source = ctx.getSource();
                         var server = source.getServer();
                         if (server == null) { source.sendFeedback(() -> Text.literal("Server not available."), false); return 0; }
-                        net.minecraft.server.world.ServerWorld world;
+                        ServerWorld world;
                         try { world = server.getOverworld(); } catch (Throwable t) { source.sendFeedback(() -> Text.literal("World not available."), false); return 0; }
                         long todFull; long timeTotal;
                         try { todFull = world.getTimeOfDay(); timeTotal = world.getTime(); } catch (Throwable t) { todFull = 0L; timeTotal = 0L; }
@@ -356,136 +283,102 @@ public class Hardcoreplus implements ModInitializer {
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
             try {
                 var runDir = server.getRunDirectory();
-                var propsFile = runDir.resolve("server.properties");
-                String levelName = "world";
-                if (Files.exists(propsFile)) {
-                    try (var in = Files.newInputStream(propsFile)) { var p = new Properties(); p.load(in); levelName = Optional.ofNullable(p.getProperty("level-name")).orElse(levelName); }
-                }
+                String levelName = ServerPropertiesStore.levelName(runDir);
                 CURRENT_LEVEL_NAME = levelName;
                 var worldStart = runDir.resolve("hc_world_start.flag");
                 long start = System.currentTimeMillis(); boolean matched = false;
                 if (Files.exists(worldStart)) {
                     try (var r = Files.newBufferedReader(worldStart)) { var pp = new Properties(); pp.load(r); String ln = pp.getProperty("level-name"); String st = pp.getProperty("start"); if (ln != null && ln.equals(levelName) && st != null) { try { start = Long.parseLong(st); matched = true; } catch (NumberFormatException ignored) {} } }
                 }
-                try { var out = new Properties(); out.setProperty("level-name", levelName); out.setProperty("start", Long.toString(start)); try (var w = Files.newBufferedWriter(worldStart)) { out.store(w, "HardcorePlus+ world start timestamp"); } } catch (Throwable t) { LOGGER.info("Failed to write world start flag", t); }
+                try { var out = new Properties(); out.setProperty("level-name", levelName); out.setProperty("start", Long.toString(start)); out.setProperty("seed", Long.toString(server.getOverworld().getSeed())); try (var w = Files.newBufferedWriter(worldStart)) { out.store(w, "HardcorePlus+ world start timestamp"); } } catch (Throwable t) { LOGGER.info("Failed to write world start flag", t); }
                 WORLD_START_MILLIS = start;
                 LOGGER.info("World '{}' start time set{}: {}", levelName, matched ? " (restored)" : "", new java.util.Date(start));
             } catch (Throwable t) { LOGGER.info("Failed to initialize world start tracking", t); }
-        });
-    }
-
-    public static void requestResetAndStop(MinecraftServer server) {
-        if (server == null) return;
-        try { if (!server.isDedicated()) { LOGGER.info("RequestResetAndStop refused: not a dedicated server"); return; } } catch (Throwable ignored) { LOGGER.info("RequestResetAndStop refused: unable to determine server type"); return; }
-        try { ConfigManager.reload(); } catch (Throwable ignored) {}
-        try {
-            var runDir = server.getRunDirectory();
-            var existingMarker = runDir.resolve("hc_reset.flag");
-            if (Files.exists(existingMarker)) { LOGGER.warn("hc_reset.flag already exists; a reset is already scheduled. Skipping duplicate request."); return; }
-
-            var propsFile = runDir.resolve("server.properties");
-            var p = new Properties();
-            String oldLevelName = "world";
-            if (Files.exists(propsFile)) { try (var in = Files.newInputStream(propsFile)) { p.load(in); oldLevelName = Optional.ofNullable(p.getProperty("level-name")).orElse(oldLevelName); } }
-
-            var baseFile = runDir.resolve("hc_base_name.txt");
-            String baseLevelName = oldLevelName;
+            try { if (server.isDedicated()) Metrics.serverStarted(); } catch (Throwable ignored) {}
+            // Fresh world: generate around spawn before the first players arrive, and keep a template of it for a custom seed
             try {
-                if (Files.exists(baseFile)) {
-                    baseLevelName = Files.readString(baseFile).trim();
-                    if (baseLevelName.isEmpty()) baseLevelName = oldLevelName;
-                } else {
-                    Files.writeString(baseFile, baseLevelName, java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING);
-                    LOGGER.info("Saved base level-name '{}' to {}", baseLevelName, baseFile.toAbsolutePath());
+                if (server.isDedicated()) {
+                    var runDir = server.getRunDirectory();
+                    WorldTemplate.serverStarted(runDir, SharedConstants.getGameVersion().getName(), server.getDataPackManager().getEnabledIds());
+                    ServerWorld overworld = server.getOverworld();
+                    BlockPos spawn = overworld.getSpawnPos();
+                    long seed = overworld.getSeed();
+                    boolean capture = WorldTemplate.shouldCapture(runDir, seed);
+                    // save-all flush + save-off while the template is copied off-thread, save-on afterwards
+                    Supplier<CompletableFuture<Void>> onDone = capture ? () -> WorldTemplate.capture(runDir, ServerPropertiesStore.levelName(runDir), seed,
+                            () -> { server.saveAll(true, true, true); for (ServerWorld w : server.getWorlds()) w.savingDisabled = true; },
+                            () -> { for (ServerWorld w : server.getWorlds()) w.savingDisabled = false; }, server) : null;
+                    SpawnWarmup.start(spawn.getX() >> 4, spawn.getZ() >> 4, capture ? WorldTemplate.radius() : 0, (x, z) -> overworld.getChunk(x, z), onDone);
                 }
-            } catch (Throwable t) { LOGGER.info("Failed to read/write base level-name; using current level-name as base", t); baseLevelName = oldLevelName; }
-            baseLevelName = NameUtil.stripTimeSuffixes(baseLevelName);
-
-            String timePattern = Optional.ofNullable(ConfigManager.get("time_format")).filter(s -> !s.isBlank()).orElse("HH-mm-ss_uuuu-MM-dd");
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern(timePattern).withZone(ZoneId.systemDefault());
-            String timeStr = fmt.format(Instant.now());
-            String nameFormat = Optional.ofNullable(ConfigManager.get("new_level_name_format")).filter(s -> !s.isBlank()).orElse("%name%_%time%");
-            String id = UUID.randomUUID().toString().substring(0, 8);
-            String newLevelName = nameFormat.replace("%name%", baseLevelName).replace("%time%", timeStr).replace("%id%", id);
-            newLevelName = NameUtil.sanitizeName(newLevelName);
-            p.setProperty("level-name", newLevelName);
-
-            String newSeedWritten = null;
-            boolean forceNewSeed = ConfigManager.getBoolean("force_new_seed");
-            if (forceNewSeed) {
-                String seedMode = Optional.ofNullable(ConfigManager.get("seed_mode")).orElse("random").trim().toLowerCase();
-                if (seedMode.equals("custom")) {
-                    String customSeed = Optional.ofNullable(ConfigManager.get("custom_seed")).orElse("");
-                    if (!customSeed.isBlank()) { p.setProperty("level-seed", customSeed); newSeedWritten = customSeed; }
-                    else { long newSeed = ThreadLocalRandom.current().nextLong(); p.setProperty("level-seed", Long.toString(newSeed)); newSeedWritten = Long.toString(newSeed); }
-                } else {
-                    long newSeed = ThreadLocalRandom.current().nextLong(); p.setProperty("level-seed", Long.toString(newSeed)); newSeedWritten = Long.toString(newSeed);
-                }
-            }
+            } catch (Throwable t) { LOGGER.info("Failed to start spawn warm-up", t); }
+            // Death hooks read this instead of querying the server on every death
+            try { DeathQueue.serverStarted(server.isDedicated() && server.getSaveProperties().isHardcore()); } catch (Throwable t) { LOGGER.info("Failed to determine hardcore mode", t); }
+            try { if (server.isDedicated()) BackupQueue.start(server.getRunDirectory()); } catch (Throwable t) { LOGGER.info("Failed to start backup worker", t); }
+            try { if (server.isDedicated()) { SeedEvaluator eval = SeedEvaluator.create(server); if (eval != null) SeedScout.start(server.getRunDirectory(), SharedConstants.getGameVersion().getName(), eval); } } catch (Throwable t) { LOGGER.info("Failed to start seed scout", t); }
+        });
 
-            try (var out = Files.newOutputStream(propsFile, java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING)) { p.store(out, "server.properties (modified by HardcorePlus+) new level-name & optional seed"); }
-            LOGGER.info("Prepared rotation: old-level-name='{}' -> new-level-name='{}'{}", oldLevelName, newLevelName, newSeedWritten == null ? "" : ", level-seed=" + newSeedWritten);
+        // Stop timing (covers the final save) and metrics persistence
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> { SpawnWarmup.stop(); SeedScout.stop(); Metrics.serverStopping(); });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> { Metrics.serverStopped(); DeathQueue.serverStopped(); });
 
-            var marker = runDir.resolve("hc_reset.flag");
-            var mp = new Properties();
-            mp.setProperty("requestedBy", "mod");
-            mp.setProperty("time", Long.toString(System.currentTimeMillis()));
-            mp.setProperty("old-level-name", oldLevelName);
-            mp.setProperty("new-level-name", newLevelName);
-            mp.setProperty("base-level-name", baseLevelName);
-            if (newSeedWritten != null) mp.setProperty("new-seed", newSeedWritten);
-            try (var w = Files.newBufferedWriter(marker)) { mp.store(w, "HardcorePlus+ world rotation metadata"); }
-            LOGGER.info("Wrote hc_reset.flag at {} with rotation metadata", marker.toAbsolutePath());
+        // Spawn warm-up, mass-kill batches, this tick's deaths, the restart countdown and its incremental chunk flush run on the server tick
+        ServerTickEvents.END_SERVER_TICK.register(server -> { SpawnWarmup.tick(); MassKillBatch.tick(); processDeaths(server); RestartCountdown.tick(); ChunkFlusher.tick(server); });
+    }
 
-            boolean autoRestart = ConfigManager.getBoolean("auto_restart");
-            int delay = ConfigManager.getInt("restart_delay_seconds", 10);
+    public static void requestResetAndStop(MinecraftServer server) { prepareReset(server, "command"); }
 
+    private static void prepareReset(MinecraftServer server, String reason) {
+        if (server == null) return;
+        try { if (!server.isDedicated()) { LOGGER.info("RequestResetAndStop refused: not a dedicated server"); return; } } catch (Throwable ignored) { LOGGER.info("RequestResetAndStop refused: unable to determine server type"); return; }
+        // File work happens on the rotation I/O executor; the countdown starts back on the server thread
+        boolean submitted = RotationPrep.submit(server.getRunDirectory(), reason, server, prepared -> {
+            int delay = ConfigManager.current().restartDelaySeconds();
             LOGGER.info("HardcorePlus+ initiating server stop for reset in {} seconds", delay);
-            try {
-                Thread t = new Thread(() -> {
-                    try { Thread.sleep(delay * 1000L); } catch (InterruptedException ignored) {}
-                    try {
-                        server.execute(() -> {
-                            server.stop(false);
-                            if (autoRestart) { LOGGER.info("auto_restart is true; server process should be restarted by wrapper if present"); }
-                        });
-                    } catch (Throwable ex) { LOGGER.warn("Failed to stop server after delay", ex); }
-                }, "hcp-restart-timer");
-                t.setDaemon(true); t.start();
-            } catch (Throwable t) {
-                LOGGER.warn("Failed to start restart timer thread; stopping immediately as fallback", t);
-                try { server.stop(false); } catch (Throwable ex) { LOGGER.warn("Failed to stop server", ex); }
-            }
-        } catch (Throwable t) {
-            LOGGER.warn("Exception while requesting reset and stop (Fabric)", t);
-        }
+            // Counted down on the server tick; /hcp reset cancel can still undo it
+            RestartCountdown.schedule(delay, new CountdownDisplay(server), () -> {
+                Metrics.rotation();
+                try { RotationJournal.stopped(server.getRunDirectory()); } catch (IOException e) { LOGGER.warn("Failed to journal rotation stop", e); }
+                if (DiscardOnStop.shouldArm()) discardWorldsOnStop(server);
+                server.stop(false);
+                if (ConfigManager.current().autoRestart()) { LOGGER.info("auto_restart is true; server process should be restarted by wrapper if present"); }
+            });
+        }, failure -> {
+            try { server.getPlayerManager().broadcast(Text.literal(failure).formatted(Formatting.RED), false); } catch (Throwable t) { LOGGER.info("Failed to broadcast rotation failure", t); }
+        });
+        if (!submitted) LOGGER.warn("A reset is already being prepared or scheduled. Skipping duplicate request.");
+    }
+
+    // One mass-kill and reset for everyone who died this tick (queued by PlayerDeathMixin)
+    static void processDeaths(MinecraftServer server) {
+        List<String> victims = DeathQueue.drain();
+        if (victims.isEmpty() || PROCESSING.get()) return;
+        LOGGER.debug("[hcp] {} hardcore death(s) this tick; proceeding to mass-kill then reset", victims.size());
+        Runnable reset = () -> {
+            LOGGER.info("[hcp] All players dead in hardcore world — requesting reset and server stop");
+            try { requestResetAndStop(server, victims); } catch (Throwable t) { LOGGER.error("[hcp] requestResetAndStop failed", t); }
+        };
+        // The reset follows the last mass-kill batch
+        boolean queued = false;
+        try { queued = performMassKill(server, reset); } catch (Throwable t) { LOGGER.warn("[hcp] performMassKill failed", t); }
+        if (!queued) reset.run();
     }
 
     public static void requestResetAndStop(MinecraftServer server, String triggeringPlayerName) {
+        requestResetAndStop(server, triggeringPlayerName == null || triggeringPlayerName.isBlank() ? List.of() : List.of(triggeringPlayerName));
+    }
+
+    public static void requestResetAndStop(MinecraftServer server, List<String> victims) {
         if (server == null) return;
         try { if (!server.isDedicated()) return; } catch (Throwable ignored) { return; }
-        try { ConfigManager.reload(); } catch (Throwable ignored) {}
+        // No disk access here: this runs on the server thread right after the deaths
+        if (RotationPrep.isBusy()) { LOGGER.debug("Reset already scheduled; suppressing duplicate restart announcement"); return; }
         try {
-            var runDir = server.getRunDirectory();
-            var existingMarker = runDir.resolve("hc_reset.flag");
-            if (Files.exists(existingMarker)) { LOGGER.debug("Reset already scheduled; suppressing duplicate restart announcement"); return; }
-            int delay = ConfigManager.getInt("restart_delay_seconds", 10);
-            long startMs = WORLD_START_MILLIS;
-            if (startMs <= 0) {
-                try {
-                    var worldStart = runDir.resolve("hc_world_start.flag");
-                    if (Files.exists(worldStart)) {
-                        var pp = new Properties(); try (var r = Files.newBufferedReader(worldStart)) { pp.load(r); }
-                        String ln = pp.getProperty("level-name"); String st = pp.getProperty("start");
-                        if (ln != null && st != null && ln.equals(CURRENT_LEVEL_NAME)) { try { startMs = Long.parseLong(st); } catch (NumberFormatException ignored) {} }
-                    }
-                } catch (Throwable ignored) {}
-            }
-            String dur = formatDuration(Math.max(0L, System.currentTimeMillis() - Math.max(0L, startMs)));
+            int delay = ConfigManager.current().restartDelaySeconds();
+            String dur = formatDuration(Math.max(0L, System.currentTimeMillis() - Math.max(0L, WORLD_START_MILLIS)));
             try {
                 Text msg = Text.empty()
-                        .append(Text.literal(triggeringPlayerName != null && !triggeringPlayerName.isBlank() ? triggeringPlayerName : "A player").formatted(Formatting.GOLD, Formatting.BOLD))
-                        .append(Text.literal(" has died. ").formatted(Formatting.RED))
+                        .append(Text.literal(DeathQueue.describe(victims)).formatted(Formatting.GOLD, Formatting.BOLD))
+                        .append(Text.literal(victims.size() > 1 ? " have died. " : " has died. ").formatted(Formatting.RED))
                         .append(Text.literal("World lasted ").formatted(Formatting.GRAY))
                         .append(Text.literal(dur).formatted(Formatting.AQUA, Formatting.BOLD))
                         .append(Text.literal(". Restart in ").formatted(Formatting.GRAY))
@@ -494,14 +387,23 @@ public class Hardcoreplus implements ModInitializer {
                 server.getPlayerManager().broadcast(msg, false);
             } catch (Throwable t) { LOGGER.info("Failed to broadcast restart message", t); }
         } catch (Throwable t) { LOGGER.info("Announcement pre-check failed; proceeding with reset request", t); }
-        requestResetAndStop(server);
+        prepareReset(server, "death");
+    }
+
+    // Old world is deleted on next start: turn off saving so the stop skips the final flush
+    private static void discardWorldsOnStop(MinecraftServer server) {
+        DiscardOnStop.arm();
+        for (ServerWorld world : server.getWorlds()) {
+            try { world.savingDisabled = true; } catch (Throwable ignored) {}
+        }
+        LOGGER.info("Old world will be deleted on next start; skipping shutdown save");
     }
 
     // Broadcast message for command-triggered restart (no "has died" phrasing)
     private static void broadcastCommandRestart(MinecraftServer server) {
         try { if (server == null || !server.isDedicated()) return; } catch (Throwable ignored) { return; }
-        try { ConfigManager.reload(); } catch (Throwable ignored) {}
-        int delay = ConfigManager.getInt("restart_delay_seconds", 10);
+        if (RotationPrep.isBusy()) return;
+        int delay = ConfigManager.current().restartDelaySeconds();
         long uptimeMs = WORLD_START_MILLIS > 0 ? System.currentTimeMillis() - WORLD_START_MILLIS : 0L;
         String dur = formatDuration(Math.max(0L, uptimeMs));
         try {
@@ -516,26 +418,52 @@ public class Hardcoreplus implements ModInitializer {
         } catch (Throwable t) { LOGGER.info("Failed to broadcast command-triggered restart message", t); }
     }
 
-    public static void performMassKill(MinecraftServer server) {
-        if (server == null) return;
-        if (!PROCESSING.compareAndSet(false, true)) { LOGGER.info("[hcp] performMassKill called but processing already true"); return; }
+    public static void performMassKill(MinecraftServer server) { performMassKill(server, () -> {}); }
+
+    /**
+     * Kill every online player, masskill_per_tick per server tick. Returns false when a mass-kill is
+     * already running; otherwise then runs once on the server thread after the last kill.
+     */
+    public static boolean performMassKill(MinecraftServer server, Runnable then) {
+        if (server == null) return false;
+        if (!PROCESSING.compareAndSet(false, true)) { LOGGER.info("[hcp] performMassKill called but processing already true"); return false; }
+        boolean suppressDrops = MassKillBatch.suppressDrops();
+        boolean started = false;
         try {
-            server.getPlayerManager().getPlayerList().forEach(player -> {
-                try {
-                    if (!player.isDead() && player.isAlive()) {
-                        LOGGER.info("[hcp] Killing player: {}", player.getGameProfile().getName());
-                        try {
-                            player.kill();
-                        } catch (Throwable t) {
-                            LOGGER.info("[hcp] kill() failed for {} - falling back to setHealth(0)", player.getGameProfile().getName());
-                            try { player.setHealth(0.0F); } catch (Throwable ignored) {}
-                        }
-                    }
-                } catch (Throwable t) { LOGGER.info("[hcp] Exception while attempting to kill player {}", player.getGameProfile().getName(), t); }
+            started = MassKillBatch.start(CURRENT_LEVEL_NAME, List.copyOf(server.getPlayerManager().getPlayerList()), player -> killPlayer(player, suppressDrops), () -> {
+                PROCESSING.set(false);
+                then.run();
             });
         } finally {
-            PROCESSING.set(false);
+            if (!started) PROCESSING.set(false);
         }
+        return started;
+    }
+
+    private static boolean killPlayer(ServerPlayerEntity player, boolean suppressDrops) {
+        // Players who left or already died since the batch was queued
+        if (player.isRemoved() || player.isDead() || !player.isAlive()) return false;
+        LOGGER.info("[hcp] Killing player: {}", player.getGameProfile().getName());
+        if (suppressDrops) {
+            player.getInventory().clear();
+            player.setExperienceLevel(0);
+            player.setExperiencePoints(0);
+        }
+        try {
+            player.kill();
+        } catch (Throwable t) {
+            LOGGER.info("[hcp] kill() failed for {} - falling back to setHealth(0)", player.getGameProfile().getName());
+            try { player.setHealth(0.0F); } catch (Throwable ignored) {}
+        }
+        return true;
+    }
+
+    // Served from the backup folder's catalog file, read off the server thread; the backups themselves are never opened
+    private static int listBackups(ServerCommandSource source, int page) {
+        var server = source.getServer();
+        BackupIndex.pageAsync(BackupQueue.backupRoot(server.getRunDirectory()), page)
+                .thenAcceptAsync(lines -> source.sendFeedback(() -> Text.literal(String.join("\n  ", lines)), false), server);
+        return 1;
     }
 
     private static String formatDuration(long millis) {
@@ -0,0 +1,93 @@
+package insidate.hardcoreplus;
+
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.BiomeTags;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.structure.StructureSet;
+import net.minecraft.structure.StructureSetKeys;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.noise.DoublePerlinNoiseSampler;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.source.BiomeSource;
+import net.minecraft.world.biome.source.util.MultiNoiseUtil;
+import net.minecraft.world.gen.chunk.ChunkGeneratorSettings;
+import net.minecraft.world.gen.chunk.NoiseChunkGenerator;
+import net.minecraft.world.gen.chunk.placement.RandomSpreadStructurePlacement;
+import net.minecraft.world.gen.noise.NoiseConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Screens seeds for SeedScout with the overworld's biome source and noise router only; no chunk is generated
+final class SeedEvaluator implements SeedScout.Evaluator {
+    // Biomes are sampled near sea level, where spawn, land and villages are decided
+    private static final int SURFACE_Y = 64;
+    private static final int LAND_STEP_BLOCKS = 32;
+
+    private final BiomeSource biomes;
+    private final ChunkGeneratorSettings settings;
+    private final RegistryWrapper.Impl<DoublePerlinNoiseSampler.NoiseParameters> noises;
+    private final StructureSet villages;
+
+    private SeedEvaluator(BiomeSource biomes, ChunkGeneratorSettings settings, RegistryWrapper.Impl<DoublePerlinNoiseSampler.NoiseParameters> noises, StructureSet villages) {
+        this.biomes = biomes;
+        this.settings = settings;
+        this.noises = noises;
+        this.villages = villages;
+    }
+
+    // Null for generators without noise (e.g. superflat), which have nothing to screen
+    static SeedEvaluator create(MinecraftServer server) {
+        if (!(server.getOverworld().getChunkManager().getChunkGenerator() instanceof NoiseChunkGenerator gen)) return null;
+        var registries = server.getRegistryManager();
+        StructureSet villages = registries.get(RegistryKeys.STRUCTURE_SET).getEntry(StructureSetKeys.VILLAGES).map(RegistryEntry::value).orElse(null);
+        return new SeedEvaluator(gen.getBiomeSource(), gen.getSettings().value(), registries.getWrapperOrThrow(RegistryKeys.NOISE_PARAMETERS), villages);
+    }
+
+    @Override
+    public SeedScout.Sample evaluate(long seed, SeedScout.Rules rules) {
+        MultiNoiseUtil.MultiNoiseSampler sampler = NoiseConfig.create(settings, noises, seed).getMultiNoiseSampler();
+        BlockPos spawn = sampler.findBestSpawnPosition();
+        RegistryEntry<Biome> spawnBiome = biomeAt(spawn.getX(), spawn.getZ(), sampler);
+        List<String> names = new ArrayList<>();
+        spawnBiome.getKey().ifPresent(k -> names.add(k.getValue().toString()));
+        spawnBiome.streamTags().forEach(t -> names.add("#" + t.id()));
+
+        int r = rules.landRadiusBlocks(), land = 0, total = 0;
+        for (int dx = -r; dx <= r; dx += LAND_STEP_BLOCKS) {
+            for (int dz = -r; dz <= r; dz += LAND_STEP_BLOCKS) {
+                if (dx * dx + dz * dz > r * r) continue;
+                RegistryEntry<Biome> b = biomeAt(spawn.getX() + dx, spawn.getZ() + dz, sampler);
+                total++;
+                if (!b.isIn(BiomeTags.IS_OCEAN) && !b.isIn(BiomeTags.IS_RIVER)) land++;
+            }
+        }
+        int village = rules.maxVillageChunks() > 0 ? nearestVillage(seed, spawn, rules.maxVillageChunks(), sampler) : -1;
+        return new SeedScout.Sample(seed, names, village, total == 0 ? 100 : land * 100 / total);
+    }
+
+    // Chunks from spawn to the closest village start whose biome allows one of the village structures
+    private int nearestVillage(long seed, BlockPos spawn, int maxChunks, MultiNoiseUtil.MultiNoiseSampler sampler) {
+        if (villages == null || !(villages.placement() instanceof RandomSpreadStructurePlacement placement)) return -1;
+        ChunkPos origin = new ChunkPos(spawn);
+        int spacing = placement.getSpacing();
+        int best = -1;
+        for (int rx = Math.floorDiv(origin.x - maxChunks, spacing); rx <= Math.floorDiv(origin.x + maxChunks, spacing); rx++) {
+            for (int rz = Math.floorDiv(origin.z - maxChunks, spacing); rz <= Math.floorDiv(origin.z + maxChunks, spacing); rz++) {
+                ChunkPos start = placement.getStartChunk(seed, rx * spacing, rz * spacing);
+                int dist = (int) Math.round(Math.sqrt(Math.pow(start.x - origin.x, 2) + Math.pow(start.z - origin.z, 2)));
+                if (dist > maxChunks || (best >= 0 && dist >= best)) continue;
+                RegistryEntry<Biome> b = biomeAt(start.getCenterX(), start.getCenterZ(), sampler);
+                if (villages.structures().stream().anyMatch(s -> s.structure().value().getValidBiomes().contains(b))) best = dist;
+            }
+        }
+        return best;
+    }
+
+    private RegistryEntry<Biome> biomeAt(int x, int z, MultiNoiseUtil.MultiNoiseSampler sampler) {
+        return biomes.getBiome(x >> 2, SURFACE_Y >> 2, z >> 2, sampler);
+    }
+}
@@ -0,0 +1,19 @@
+package insidate.hardcoreplus.mixin;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ServerChunkLoadingManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+@Mixin(ServerChunkLoadingManager.class)
+public interface ChunkLoadingManagerAccessor {
+    // Holders visible to the rest of the server (the map the final save walks)
+    @Accessor("chunkHolders")
+    Long2ObjectLinkedOpenHashMap<ChunkHolder> hcp$chunkHolders();
+
+    // Saves the holder's chunk if it is dirty and off its save cooldown; same call the autosave uses
+    @Invoker("save")
+    boolean hcp$save(ChunkHolder holder);
+}
@@ -0,0 +1,17 @@
+package insidate.hardcoreplus.mixin;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.server.world.ServerChunkManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerChunkManager.class)
+public class DiscardChunkSaveMixin {
+    // ServerWorld.close() -> ServerChunkManager.close() flushes every dirty chunk and POI section
+    @Inject(at = @At("HEAD"), method = "save(Z)V", cancellable = true)
+    private void hcp$skipChunkSave(boolean flush, CallbackInfo ci) {
+        if (DiscardOnStop.isArmed()) ci.cancel();
+    }
+}
@@ -0,0 +1,17 @@
+package insidate.hardcoreplus.mixin;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.server.world.ServerEntityManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerEntityManager.class)
+public class DiscardEntitySaveMixin {
+    // ServerWorld.close() -> ServerEntityManager.close() flushes all loaded entity sections
+    @Inject(at = @At("HEAD"), method = "flush()V", cancellable = true)
+    private void hcp$skipEntityFlush(CallbackInfo ci) {
+        if (DiscardOnStop.isArmed()) ci.cancel();
+    }
+}
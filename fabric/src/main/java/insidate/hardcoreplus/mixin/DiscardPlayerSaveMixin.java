@@ -0,0 +1,24 @@
+package insidate.hardcoreplus.mixin;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(PlayerManager.class)
+public class DiscardPlayerSaveMixin {
+    // Player data of a discarded world is never read again
+    @Inject(at = @At("HEAD"), method = "saveAllPlayerData()V", cancellable = true)
+    private void hcp$skipSaveAll(CallbackInfo ci) {
+        if (DiscardOnStop.isArmed()) ci.cancel();
+    }
+
+    // Also reached through disconnectAllPlayers -> remove(player)
+    @Inject(at = @At("HEAD"), method = "savePlayerData(Lnet/minecraft/server/network/ServerPlayerEntity;)V", cancellable = true)
+    private void hcp$skipSavePlayer(ServerPlayerEntity player, CallbackInfo ci) {
+        if (DiscardOnStop.isArmed()) ci.cancel();
+    }
+}
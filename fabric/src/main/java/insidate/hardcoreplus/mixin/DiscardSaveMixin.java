@@ -0,0 +1,17 @@
+package insidate.hardcoreplus.mixin;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.server.MinecraftServer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(MinecraftServer.class)
+public class DiscardSaveMixin {
+    // Skip the world + level.dat save performed by shutdown when the old world will be deleted
+    @Inject(at = @At("HEAD"), method = "save(ZZZ)Z", cancellable = true)
+    private void hcp$skipSave(boolean suppressLogs, boolean flush, boolean force, CallbackInfoReturnable<Boolean> cir) {
+        if (DiscardOnStop.isArmed()) cir.setReturnValue(false);
+    }
+}
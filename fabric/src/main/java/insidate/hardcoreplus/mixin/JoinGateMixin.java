@@ -0,0 +1,23 @@
+package insidate.hardcoreplus.mixin;
+
+import com.mojang.authlib.GameProfile;
+import insidate.hardcoreplus.SpawnWarmup;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.text.Text;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.net.SocketAddress;
+
+@Mixin(PlayerManager.class)
+public class JoinGateMixin {
+    // Same hook as the ban/whitelist check: a non-null result refuses the login with that message
+    @Inject(at = @At("HEAD"), method = "checkCanJoin", cancellable = true)
+    private void hcp$holdDuringWarmup(SocketAddress address, GameProfile profile, CallbackInfoReturnable<Text> cir) {
+        if (!SpawnWarmup.holdJoins()) return;
+        if (((PlayerManager) (Object) this).isOperator(profile)) return;
+        cir.setReturnValue(Text.literal(SpawnWarmup.holdMessage()));
+    }
+}
@@ -0,0 +1,32 @@
+package insidate.hardcoreplus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import insidate.hardcoreplus.mixin.ChunkMapAccessor;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ChunkHolder;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+
+// Saves dirty chunks under a per-tick budget while a restart countdown runs (see CountdownFlush)
+final class ChunkFlusher {
+	private ChunkFlusher() {}
+
+	private static final Map<ResourceKey<Level>, CountdownFlush.Cursor<ChunkHolder>> CURSORS = new HashMap<>();
+
+	static void tick(MinecraftServer server) {
+		long budget = CountdownFlush.budgetNanos();
+		if (budget <= 0) { CURSORS.clear(); return; }
+		long deadline = System.nanoTime() + budget;
+		for (ServerLevel level : server.getAllLevels()) {
+			if (level.noSave) continue;
+			ChunkMapAccessor chunkMap = (ChunkMapAccessor) level.getChunkSource().chunkMap;
+			int saved = CURSORS.computeIfAbsent(level.dimension(), k -> new CountdownFlush.Cursor<>())
+					.run(() -> chunkMap.hcp$visibleChunkMap().values(), chunkMap::hcp$saveChunkIfNeeded, deadline);
+			Metrics.COUNTDOWN_CHUNKS_SAVED.add(saved);
+			if (System.nanoTime() >= deadline) break;
+		}
+	}
+}
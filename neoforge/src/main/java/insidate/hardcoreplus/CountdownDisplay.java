@@ -0,0 +1,45 @@
+package insidate.hardcoreplus;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerBossEvent;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.BossEvent;
+
+// Boss bar / action bar / chat output for RestartCountdown
+final class CountdownDisplay implements RestartCountdown.Display {
+	private final MinecraftServer server;
+	private final ServerBossEvent bar = new ServerBossEvent(Component.literal("Restart"), BossEvent.BossBarColor.RED, BossEvent.BossBarOverlay.PROGRESS);
+
+	CountdownDisplay(MinecraftServer server) { this.server = server; }
+
+	@Override
+	public void bossBar(int secondsLeft, float progress) {
+		bar.setName(label(secondsLeft));
+		bar.setProgress(progress);
+		// Adding is idempotent and also picks up players who joined mid-countdown
+		for (ServerPlayer p : server.getPlayerList().getPlayers()) bar.addPlayer(p);
+	}
+
+	@Override
+	public void actionBar(int secondsLeft) {
+		Component msg = label(secondsLeft);
+		for (ServerPlayer p : server.getPlayerList().getPlayers()) p.displayClientMessage(msg, true);
+	}
+
+	@Override
+	public void chat(int secondsLeft) {
+		server.getPlayerList().broadcastSystemMessage(label(secondsLeft), false);
+	}
+
+	@Override
+	public void clear() { bar.removeAllPlayers(); }
+
+	private static Component label(int secondsLeft) {
+		return Component.empty()
+				.append(Component.literal("World reset in ").withStyle(ChatFormatting.GRAY))
+				.append(Component.literal(Integer.toString(secondsLeft)).withStyle(ChatFormatting.YELLOW, ChatFormatting.BOLD))
+				.append(Component.literal(secondsLeft == 1 ? " second" : " seconds").withStyle(ChatFormatting.GRAY));
+	}
+}
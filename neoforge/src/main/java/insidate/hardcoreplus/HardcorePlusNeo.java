@@ -3,25 +3,29 @@ package insidate.hardcoreplus;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 
 import net.minecraft.ChatFormatting;
+import net.minecraft.SharedConstants;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
@@ -34,6 +38,9 @@ import net.neoforged.neoforge.event.RegisterCommandsEvent;
 import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
 import net.neoforged.neoforge.event.server.ServerAboutToStartEvent;
 import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 
 @Mod(HardcorePlusNeo.MOD_ID)
 public class HardcorePlusNeo {
@@ -62,94 +69,18 @@ public class HardcorePlusNeo {
 		LOGGER.info("HardcorePlus+ common setup (NeoForge)");
 	}
 
-	// Handle reset marker before server fully starts (backup/delete old world folder)
+	// Apply a journaled rotation before server fully starts (stages the old world folder for backup/delete)
 	@SubscribeEvent
 	public void onServerAboutToStart(ServerAboutToStartEvent event) {
 		MinecraftServer server = event.getServer();
 		if (server == null) return;
 		try { if (!server.isDedicatedServer()) return; } catch (Throwable ignored) { return; }
-		try { ConfigManager.reload(); } catch (Throwable ignored) {}
+		try { Metrics.start(server.getServerDirectory()); } catch (Throwable t) { LOGGER.warn("Failed to start metrics (NeoForge)", t); }
 		try {
-			Path runDir = server.getServerDirectory();
-			Path marker = runDir.resolve("hc_reset.flag");
-			if (!Files.exists(marker)) return;
-
-			LOGGER.info("hc_reset.flag detected; preparing to rotate world (NeoForge)");
-
-			String levelName = "world";
-			try {
-				Properties mp = new Properties();
-				try (var r = Files.newBufferedReader(marker)) { mp.load(r); }
-				String fromMarker = mp.getProperty("old-level-name");
-				if (fromMarker != null && !fromMarker.isBlank()) levelName = fromMarker;
-			} catch (IOException ignored) {}
-			if ("world".equals(levelName)) {
-				Path propsFile = runDir.resolve("server.properties");
-				if (Files.exists(propsFile)) {
-					try (var in = Files.newInputStream(propsFile)) {
-						Properties p = new Properties();
-						p.load(in);
-						levelName = Optional.ofNullable(p.getProperty("level-name")).orElse(levelName);
-					}
-				}
-			}
-			Path worldDir = runDir.resolve(levelName);
-			boolean doBackup = ConfigManager.getBoolean("backup_old_worlds");
-			boolean deleteInstead = ConfigManager.getBoolean("delete_instead_of_backup");
-			String backupFolderName = Optional.ofNullable(ConfigManager.get("backup_folder_name")).orElse("Old Worlds");
-
-			if (Files.exists(worldDir)) {
-				if (doBackup && !deleteInstead) {
-					Path backupRoot = runDir.resolve(backupFolderName);
-					if (!Files.exists(backupRoot)) Files.createDirectories(backupRoot);
-					String fmtStr = Optional.ofNullable(ConfigManager.get("backup_name_format")).orElse("%name%_%ts%");
-					DateTimeFormatter fmt = DateTimeFormatter.ofPattern("uuuuMMdd-HHmmss").withZone(ZoneId.systemDefault());
-					String ts = fmt.format(Instant.now());
-					String id = UUID.randomUUID().toString().substring(0, 8);
-					String backupName = fmtStr.replace("%name%", levelName).replace("%ts%", ts).replace("%id%", id);
-					Path backupTarget = backupRoot.resolve(backupName);
-					boolean moved = false;
-					try {
-						Files.move(worldDir, backupTarget, StandardCopyOption.ATOMIC_MOVE);
-						LOGGER.info("Moved old world to {}", backupTarget.toAbsolutePath());
-						moved = true;
-					} catch (IOException e) {
-						// This is common on Windows when files are locked; fallback paths handle it
-						LOGGER.info("Atomic move failed; trying non-atomic (expected on Windows): {}", e.toString());
-						try { Files.move(worldDir, backupTarget); moved = true; } catch (IOException ex) { LOGGER.info("Non-atomic move failed; copying (expected on Windows): {}", ex.toString()); }
-					}
-					if (!moved) {
-						try {
-							Files.walk(worldDir).forEach(src -> {
-								try {
-									Path dest = backupTarget.resolve(worldDir.relativize(src));
-									if (Files.isDirectory(src)) {
-										if (!Files.exists(dest)) Files.createDirectories(dest);
-									} else {
-										if (src.getFileName().toString().equalsIgnoreCase("session.lock")) { LOGGER.info("Skipping session.lock"); return; }
-										Files.copy(src, dest);
-									}
-								} catch (IOException ex) { LOGGER.debug("Error copying {} (continuing): {}", src, ex.toString()); }
-							});
-							Files.walk(worldDir).sorted((a, b) -> b.compareTo(a)).forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored2) {} });
-							LOGGER.info("Copied old world to {} and deleted original", backupTarget.toAbsolutePath());
-						} catch (IOException ex) {
-							LOGGER.error("Failed to copy-and-delete old world", ex);
-						}
-					}
-				} else {
-					try {
-						Files.walk(worldDir).sorted((a, b) -> b.compareTo(a)).forEach(p -> { try { Files.deleteIfExists(p); } catch (IOException ignored2) {} });
-						LOGGER.info("Deleted old world {}", worldDir.toAbsolutePath());
-					} catch (IOException e) {
-						LOGGER.error("Failed to delete old world", e);
-					}
-				}
-			}
-
-			try { Files.deleteIfExists(marker); } catch (IOException ignored) {}
+			// Only an O(1) rename happens here; copy/delete runs in the background after ServerStartedEvent
+			if (BackupQueue.stage(server.getServerDirectory())) SpawnWarmup.rotationStaged();
 		} catch (Throwable t) {
-			LOGGER.error("Exception while handling hc_reset.flag (NeoForge)", t);
+			LOGGER.error("Exception while applying the rotation journal (NeoForge)", t);
 		}
 	}
 
@@ -160,11 +91,7 @@ public class HardcorePlusNeo {
 		if (server == null) return;
 		try {
 			Path runDir = server.getServerDirectory();
-			Path propsFile = runDir.resolve("server.properties");
-			String levelName = "world";
-			if (Files.exists(propsFile)) {
-				try (var in = Files.newInputStream(propsFile)) { Properties p = new Properties(); p.load(in); levelName = Optional.ofNullable(p.getProperty("level-name")).orElse(levelName); }
-			}
+			String levelName = ServerPropertiesStore.levelName(runDir);
 			CURRENT_LEVEL_NAME = levelName;
 			Path worldStart = runDir.resolve("hc_world_start.flag");
 			long start = System.currentTimeMillis();
@@ -175,12 +102,58 @@ public class HardcorePlusNeo {
 			Properties out = new Properties();
 			out.setProperty("level-name", levelName);
 			out.setProperty("start", Long.toString(start));
+			out.setProperty("seed", Long.toString(server.overworld().getSeed()));
 			try (var w = Files.newBufferedWriter(worldStart)) { out.store(w, "HardcorePlus+ world start timestamp"); }
 			WORLD_START_MILLIS = start;
 			LOGGER.info("World '{}' start time set{}: {}", levelName, matched ? " (restored)" : "", new java.util.Date(start));
 		} catch (Throwable t) {
 			LOGGER.warn("Failed to initialize world start tracking (NeoForge)", t);
 		}
+		try { if (server.isDedicatedServer()) Metrics.serverStarted(); } catch (Throwable ignored) {}
+		// Fresh world: generate around spawn before the first players arrive, and keep a template of it for a custom seed
+		try {
+			if (server.isDedicatedServer()) {
+				Path runDir = server.getServerDirectory();
+				WorldTemplate.serverStarted(runDir, SharedConstants.getCurrentVersion().getName(), server.getPackRepository().getSelectedIds());
+				ServerLevel overworld = server.overworld();
+				BlockPos spawn = overworld.getSharedSpawnPos();
+				long seed = overworld.getSeed();
+				boolean capture = WorldTemplate.shouldCapture(runDir, seed);
+				// save-all flush + save-off while the template is copied off-thread, save-on afterwards
+				Supplier<CompletableFuture<Void>> onDone = capture ? () -> WorldTemplate.capture(runDir, ServerPropertiesStore.levelName(runDir), seed,
+						() -> { server.saveEverything(true, true, true); for (ServerLevel l : server.getAllLevels()) l.noSave = true; },
+						() -> { for (ServerLevel l : server.getAllLevels()) l.noSave = false; }, server) : null;
+				SpawnWarmup.start(spawn.getX() >> 4, spawn.getZ() >> 4, capture ? WorldTemplate.radius() : 0, (x, z) -> overworld.getChunk(x, z), onDone);
+			}
+		} catch (Throwable t) { LOGGER.warn("Failed to start spawn warm-up (NeoForge)", t); }
+		// Death handling reads this instead of querying the server on every death
+		try { DeathQueue.serverStarted(server.isDedicatedServer() && server.getWorldData().isHardcore()); } catch (Throwable t) { LOGGER.warn("Failed to determine hardcore mode (NeoForge)", t); }
+		try { if (server.isDedicatedServer()) BackupQueue.start(server.getServerDirectory()); } catch (Throwable t) { LOGGER.warn("Failed to start backup worker (NeoForge)", t); }
+		try { if (server.isDedicatedServer()) { SeedEvaluator eval = SeedEvaluator.create(server); if (eval != null) SeedScout.start(server.getServerDirectory(), SharedConstants.getCurrentVersion().getName(), eval); } } catch (Throwable t) { LOGGER.warn("Failed to start seed scout (NeoForge)", t); }
+	}
+
+	// Stop timing (covers the final save) and metrics persistence
+	@SubscribeEvent
+	public void onServerStopping(ServerStoppingEvent event) {
+		SpawnWarmup.stop();
+		SeedScout.stop();
+		Metrics.serverStopping();
+	}
+
+	@SubscribeEvent
+	public void onServerStopped(ServerStoppedEvent event) {
+		Metrics.serverStopped();
+		DeathQueue.serverStopped();
+	}
+
+	// Spawn warm-up, mass-kill batches, this tick's deaths, the restart countdown and its incremental chunk flush run on the server tick
+	@SubscribeEvent
+	public void onServerTick(ServerTickEvent.Post event) {
+		SpawnWarmup.tick();
+		MassKillBatch.tick();
+		processDeaths(event.getServer());
+		RestartCountdown.tick();
+		ChunkFlusher.tick(event.getServer());
 	}
 
 	// Commands
@@ -193,8 +166,17 @@ public class HardcorePlusNeo {
 				.then(Commands.literal("status").executes(this::cmdStatus))
 				.then(Commands.literal("preview").executes(this::cmdPreview))
 				.then(Commands.literal("reload").requires(s -> s.hasPermission(2)).executes(this::cmdReload))
+				.then(Commands.literal("metrics").requires(s -> s.hasPermission(2)).executes(this::cmdMetrics))
+				.then(Commands.literal("backups").requires(s -> s.hasPermission(2))
+						.then(Commands.literal("list")
+								.then(Commands.argument("page", IntegerArgumentType.integer(1)).executes(ctx -> cmdBackupsList(ctx, IntegerArgumentType.getInteger(ctx, "page"))))
+								.executes(ctx -> cmdBackupsList(ctx, 1)))
+						.then(Commands.literal("info")
+								.then(Commands.argument("name", StringArgumentType.greedyString()).executes(this::cmdBackupsInfo)))
+						.executes(ctx -> cmdBackupsList(ctx, 1)))
 				.then(Commands.literal("reset").requires(s -> s.hasPermission(2))
 						.then(Commands.literal("confirm").executes(this::cmdResetConfirm))
+						.then(Commands.literal("cancel").executes(this::cmdResetCancel))
 						.executes(this::cmdReset))
 				.then(Commands.literal("masskill").requires(s -> s.hasPermission(2))
 						.then(Commands.literal("confirm").executes(this::cmdMasskillConfirm))
@@ -216,9 +198,13 @@ public class HardcorePlusNeo {
 			sb.append("  /hcp masskill confirm - Confirm mass-kill and schedule restart\n");
 			sb.append("  /hcp reset - Schedule world rotation (confirm required)\n");
 			sb.append("  /hcp reset confirm - Confirm rotation and stop server\n");
+			sb.append("  /hcp reset cancel - Cancel a scheduled restart and keep the current world\n");
 			sb.append("  /hcp reload - Reload config file\n");
+			sb.append("  /hcp metrics - Show rotation timings and counters\n");
+			sb.append("  /hcp backups list [page] - List backed up worlds, newest first\n");
+			sb.append("  /hcp backups info <name> - Show a backup's level-name, seed, run time, size and checksum\n");
 		} else {
-			sb.append("  (Op-only) masskill, reset, reload\n");
+			sb.append("  (Op-only) masskill, reset, reload, metrics, backups\n");
 		}
 		ctx.getSource().sendSuccess(() -> Component.literal(sb.toString()), false);
 		return 1;
@@ -230,24 +216,24 @@ public class HardcorePlusNeo {
 		try { isHardcore = server.getWorldData().isHardcore(); } catch (Throwable ignored) {}
 		boolean propsHardcore = false;
 		try {
-			Path propsFile = server.getServerDirectory().resolve("server.properties");
-			if (Files.exists(propsFile)) {
-				Properties p = new Properties(); try (var in = Files.newInputStream(propsFile)) { p.load(in); }
-				String hv = p.getProperty("hardcore");
-				if (hv != null) propsHardcore = hv.equalsIgnoreCase("true") || hv.equalsIgnoreCase("1") || hv.equalsIgnoreCase("yes");
-			}
+			String hv = ServerPropertiesStore.get(server.getServerDirectory(), "hardcore", null);
+			if (hv != null) propsHardcore = hv.equalsIgnoreCase("true") || hv.equalsIgnoreCase("1") || hv.equalsIgnoreCase("yes");
 		} catch (Throwable ignored) {}
 		int players = 0; try { players = server.getPlayerList().getPlayers().size(); } catch (Throwable ignored) {}
-		String msg = String.format("Hardcore (world): %s, server.properties: %s, Processing: %s, Online players: %d", isHardcore, propsHardcore, PROCESSING.get(), players);
+		int restartIn = RestartCountdown.secondsLeft();
+		String warmup = SpawnWarmup.progress();
+		String msg = String.format("Hardcore (world): %s, server.properties: %s, Processing: %s, Online players: %d, Restart: %s", isHardcore, propsHardcore, PROCESSING.get(), players, restartIn < 0 ? "none" : "in " + restartIn + "s")
+				+ (SeedScout.isEnabled() ? ", Scouted seeds: " + SeedScout.readyCount() : "")
+				+ (warmup == null ? "" : ", Spawn warm-up: " + warmup);
 		ctx.getSource().sendSuccess(() -> Component.literal(msg), false);
 		return 1;
 	}
 
 	private int cmdPreview(CommandContext<CommandSourceStack> ctx) {
-		try { ConfigManager.reload(); } catch (Throwable ignored) {}
+		ConfigSnapshot cfg = ConfigManager.current();
 		MinecraftServer server = ctx.getSource().getServer();
 		String oldName = "world";
-		try { Properties p = new Properties(); Path props = server.getServerDirectory().resolve("server.properties"); if (Files.exists(props)) { try (var in = Files.newInputStream(props)) { p.load(in); } oldName = Optional.ofNullable(p.getProperty("level-name")).orElse(oldName);} } catch (Throwable ignored) {}
+		try { oldName = ServerPropertiesStore.levelName(server.getServerDirectory()); } catch (Throwable ignored) {}
 		// Prefer base name file if present; strip any trailing time suffixes to avoid duplication
 		String baseName = oldName;
 		try {
@@ -258,17 +244,11 @@ public class HardcorePlusNeo {
 			}
 			baseName = NameUtil.stripTimeSuffixes(baseName);
 		} catch (Throwable ignored) {}
-		String timePattern = Optional.ofNullable(ConfigManager.get("time_format")).filter(s -> !s.isBlank()).orElse("HH-mm-ss_uuuu-MM-dd");
-		DateTimeFormatter fmt = DateTimeFormatter.ofPattern(timePattern).withZone(ZoneId.systemDefault());
-		String timeStr = fmt.format(Instant.now());
-		String nameFmt = Optional.ofNullable(ConfigManager.get("new_level_name_format")).filter(s -> !s.isBlank()).orElse("%name%_%time%");
-		String id = UUID.randomUUID().toString().substring(0, 8);
-		String newName = NameUtil.sanitizeName(nameFmt.replace("%name%", baseName).replace("%time%", timeStr).replace("%id%", id));
+		String newName = cfg.newLevelName(baseName, Instant.now(), UUID.randomUUID().toString().substring(0, 8));
 		String seedInfo = "(unchanged)";
-		if (ConfigManager.getBoolean("force_new_seed")) {
-			String mode = Optional.ofNullable(ConfigManager.get("seed_mode")).orElse("random").trim().toLowerCase();
-			if (mode.equals("custom")) {
-				String cs = Optional.ofNullable(ConfigManager.get("custom_seed")).orElse("");
+		if (cfg.forceNewSeed()) {
+			if (cfg.seedMode().equals("custom")) {
+				String cs = cfg.customSeed();
 				seedInfo = cs.isBlank() ? "<empty custom_seed> -> random" : cs;
 			} else seedInfo = Long.toString(ThreadLocalRandom.current().nextLong());
 		}
@@ -283,6 +263,29 @@ public class HardcorePlusNeo {
 		return 1;
 	}
 
+	private int cmdMetrics(CommandContext<CommandSourceStack> ctx) {
+		String msg = "HardcorePlus+ metrics:\n  " + String.join("\n  ", Metrics.summary());
+		ctx.getSource().sendSuccess(() -> Component.literal(msg), false);
+		return 1;
+	}
+
+	// Served from the backup folder's catalog file, read off the server thread; the backups themselves are never opened
+	private int cmdBackupsList(CommandContext<CommandSourceStack> ctx, int page) {
+		CommandSourceStack source = ctx.getSource();
+		MinecraftServer server = source.getServer();
+		BackupIndex.pageAsync(BackupQueue.backupRoot(server.getServerDirectory()), page)
+				.thenAcceptAsync(lines -> source.sendSuccess(() -> Component.literal(String.join("\n  ", lines)), false), server);
+		return 1;
+	}
+
+	private int cmdBackupsInfo(CommandContext<CommandSourceStack> ctx) {
+		CommandSourceStack source = ctx.getSource();
+		MinecraftServer server = source.getServer();
+		BackupIndex.infoAsync(BackupQueue.backupRoot(server.getServerDirectory()), StringArgumentType.getString(ctx, "name"))
+				.thenAcceptAsync(lines -> source.sendSuccess(() -> Component.literal(String.join("\n  ", lines)), false), server);
+		return 1;
+	}
+
 	private int cmdReset(CommandContext<CommandSourceStack> ctx) {
 		// Simple confirm gate using source UUID where possible isn't directly available; keep simple
 		ctx.getSource().sendSuccess(() -> Component.literal("Reset requested. Confirm with /hcp reset confirm within 30 seconds."), false);
@@ -297,6 +300,21 @@ public class HardcorePlusNeo {
 		return 1;
 	}
 
+	private int cmdResetCancel(CommandContext<CommandSourceStack> ctx) {
+		MinecraftServer server = ctx.getSource().getServer();
+		// Also reaches a rotation still being prepared or journaled before its countdown started
+		boolean cancelled = true;
+		try { cancelled = RotationPrep.cancel(server.getServerDirectory()); } catch (Throwable t) { LOGGER.warn("Failed to revert pending rotation", t); ctx.getSource().sendSuccess(() -> Component.literal("Restart cancelled, but the pending rotation could not be fully reverted; see the server log."), false); }
+		if (!cancelled) { ctx.getSource().sendSuccess(() -> Component.literal("No restart is scheduled."), false); return 0; }
+		try {
+			Component msg = Component.empty()
+					.append(Component.literal("Restart cancelled").withStyle(ChatFormatting.GREEN, ChatFormatting.BOLD))
+					.append(Component.literal(" by " + ctx.getSource().getTextName() + ".").withStyle(ChatFormatting.GRAY));
+			server.getPlayerList().broadcastSystemMessage(msg, false);
+		} catch (Throwable t) { LOGGER.warn("Failed to broadcast restart cancellation", t); }
+		return 1;
+	}
+
 	private int cmdMasskill(CommandContext<CommandSourceStack> ctx) {
 		ctx.getSource().sendSuccess(() -> Component.literal("Mass-kill requested. Confirm with /hcp masskill confirm within 30 seconds."), false);
 		return 1;
@@ -306,11 +324,14 @@ public class HardcorePlusNeo {
 		MinecraftServer server = ctx.getSource().getServer();
 		boolean hardcore = false; try { hardcore = server.getWorldData().isHardcore(); } catch (Throwable ignored) {}
 		if (!hardcore) { ctx.getSource().sendSuccess(() -> Component.literal("World is not hardcore; aborting masskill."), false); return 0; }
-		performMassKill(server);
-		// After mass-kill, schedule a reset/restart using COMMAND reason to avoid "player has died" phrasing
-		try { requestResetAndStop(server, ResetReason.COMMAND, ctx.getSource().getTextName()); }
-		catch (Throwable t) { LOGGER.error("Failed to schedule reset after mass-kill", t); }
-		ctx.getSource().sendSuccess(() -> Component.literal("Mass-kill executed. Restart scheduled."), false);
+		// After the last mass-kill batch, schedule a reset/restart using COMMAND reason to avoid "player has died" phrasing
+		String by = ctx.getSource().getTextName();
+		Runnable reset = () -> {
+			try { requestResetAndStop(server, ResetReason.COMMAND, by); }
+			catch (Throwable t) { LOGGER.error("Failed to schedule reset after mass-kill", t); }
+		};
+		if (!performMassKill(server, reset)) reset.run();
+		ctx.getSource().sendSuccess(() -> Component.literal("Mass-kill started. Restart will be scheduled when it completes."), false);
 		return 1;
 	}
 
@@ -343,35 +364,73 @@ public class HardcorePlusNeo {
 	@SubscribeEvent
 	public void onLivingDeath(LivingDeathEvent event) {
 		if (!(event.getEntity() instanceof ServerPlayer player)) return;
-		MinecraftServer server = player.getServer();
-		if (server == null) return;
-		try { if (!server.isDedicatedServer()) return; } catch (Throwable ignored) { return; }
-		boolean hardcore = false; try { hardcore = server.getWorldData().isHardcore(); } catch (Throwable ignored) {}
-		if (!hardcore) return;
+		JfrEvents.PlayerDeath ev = new JfrEvents.PlayerDeath();
+		ev.begin();
+		try {
+			handlePlayerDeath(player, ev);
+		} finally {
+			ev.commit();
+		}
+	}
 
+	// Constant-time hot path: processDeaths handles this tick's victims together
+	private void handlePlayerDeath(ServerPlayer player, JfrEvents.PlayerDeath ev) {
+		ev.player = player.getGameProfile().getName();
+		ev.world = CURRENT_LEVEL_NAME;
+		// Dedicated hardcore servers only (cached at server start)
+		if (!DeathQueue.isActive()) return;
+		ev.hardcore = true;
+		// Deaths during a mass-kill are part of the reset too
+		Metrics.playerDied();
 		if (PROCESSING.get()) return;
-		LOGGER.info("[hcp] Player death detected in hardcore world; performing mass-kill and scheduling reset");
-		try { performMassKill(server); } catch (Throwable t) { LOGGER.warn("performMassKill failed", t); }
-		try { requestResetAndStop(server, ResetReason.DEATH, player.getGameProfile().getName()); } catch (Throwable t) { LOGGER.error("requestResetAndStop failed", t); }
+		ev.triggeredReset = true;
+		DeathQueue.add(ev.player);
+	}
+
+	// One mass-kill and reset for everyone who died this tick
+	private static void processDeaths(MinecraftServer server) {
+		List<String> victims = DeathQueue.drain();
+		if (victims.isEmpty() || PROCESSING.get()) return;
+		LOGGER.info("[hcp] {} player death(s) this tick in hardcore world; performing mass-kill and scheduling reset", victims.size());
+		Runnable reset = () -> { try { requestResetAndStop(server, ResetReason.DEATH, victims); } catch (Throwable t) { LOGGER.error("requestResetAndStop failed", t); } };
+		// The reset follows the last mass-kill batch
+		boolean queued = false;
+		try { queued = performMassKill(server, reset); } catch (Throwable t) { LOGGER.warn("performMassKill failed", t); }
+		if (!queued) reset.run();
 	}
 
 	// Core operations
-	public static void performMassKill(MinecraftServer server) {
-		if (server == null) return;
-		if (!PROCESSING.compareAndSet(false, true)) { LOGGER.info("[hcp] performMassKill called but processing already true"); return; }
+	public static void performMassKill(MinecraftServer server) { performMassKill(server, () -> {}); }
+
+	// Kill every online player, masskill_per_tick per tick; false when a mass-kill is already running, else then runs after the last kill
+	public static boolean performMassKill(MinecraftServer server, Runnable then) {
+		if (server == null) return false;
+		if (!PROCESSING.compareAndSet(false, true)) { LOGGER.info("[hcp] performMassKill called but processing already true"); return false; }
+		boolean suppressDrops = MassKillBatch.suppressDrops();
+		boolean started = false;
 		try {
-			for (ServerPlayer p : server.getPlayerList().getPlayers()) {
-				try {
-					if (!p.isDeadOrDying()) {
-						LOGGER.info("[hcp] Killing player: {}", p.getGameProfile().getName());
-						try { p.kill(); } catch (Throwable t) { try { p.hurt(p.damageSources().fellOutOfWorld(), Float.MAX_VALUE); } catch (Throwable ignored) {} }
-					}
-				} catch (Throwable t) { LOGGER.warn("[hcp] Exception while attempting to kill {}", p.getGameProfile().getName(), t); }
-			}
+			started = MassKillBatch.start(CURRENT_LEVEL_NAME, List.copyOf(server.getPlayerList().getPlayers()), p -> killPlayer(p, suppressDrops), () -> {
+				PROCESSING.set(false);
+				LOGGER.debug("[hcp] performMassKill processing flag cleared");
+				then.run();
+			});
 		} finally {
-			PROCESSING.set(false);
-			LOGGER.debug("[hcp] performMassKill processing flag cleared");
+			if (!started) PROCESSING.set(false);
+		}
+		return started;
+	}
+
+	private static boolean killPlayer(ServerPlayer p, boolean suppressDrops) {
+		// Players who left or already died since the batch was queued
+		if (p.isRemoved() || p.isDeadOrDying()) return false;
+		LOGGER.info("[hcp] Killing player: {}", p.getGameProfile().getName());
+		if (suppressDrops) {
+			p.getInventory().clearContent();
+			p.setExperienceLevels(0);
+			p.setExperiencePoints(0);
 		}
+		try { p.kill(); } catch (Throwable t) { try { p.hurt(p.damageSources().fellOutOfWorld(), Float.MAX_VALUE); } catch (Throwable ignored) {} }
+		return true;
 	}
 
 	public static void requestResetAndStop(MinecraftServer server, String triggeringPlayerName) {
@@ -380,30 +439,24 @@ public class HardcorePlusNeo {
 	}
 
 	public static void requestResetAndStop(MinecraftServer server, ResetReason reason, String triggeringPlayerName) {
+		requestResetAndStop(server, reason, triggeringPlayerName == null || triggeringPlayerName.isBlank() ? List.of() : List.of(triggeringPlayerName));
+	}
+
+	public static void requestResetAndStop(MinecraftServer server, ResetReason reason, List<String> victims) {
 		if (server == null) return;
 		try { if (!server.isDedicatedServer()) return; } catch (Throwable ignored) { return; }
-		try { ConfigManager.reload(); } catch (Throwable ignored) {}
+		// No disk access here: this runs on the server thread right after the deaths or the command
+		if (RotationPrep.isBusy()) { LOGGER.debug("Reset already being prepared or scheduled; skipping duplicate reset request"); return; }
 		try {
-			Path runDir = server.getServerDirectory();
-			Path existingMarker = runDir.resolve("hc_reset.flag");
-			if (Files.exists(existingMarker)) { LOGGER.debug("hc_reset.flag already exists; skipping duplicate reset request"); return; }
-
-			int delay = ConfigManager.getInt("restart_delay_seconds", 10);
-			String name = (triggeringPlayerName != null && !triggeringPlayerName.isBlank()) ? triggeringPlayerName : "A player";
-			long startMs = WORLD_START_MILLIS;
-			if (startMs <= 0) {
-				try {
-					Properties pp = new Properties(); Path worldStart = runDir.resolve("hc_world_start.flag");
-					if (Files.exists(worldStart)) { try (var r = Files.newBufferedReader(worldStart)) { pp.load(r); } String ln = pp.getProperty("level-name"), st = pp.getProperty("start"); if (ln != null && st != null && ln.equals(CURRENT_LEVEL_NAME)) { try { startMs = Long.parseLong(st); } catch (NumberFormatException ignored) {} } }
-				} catch (Throwable ignored) {}
-			}
-			String dur = formatDuration(Math.max(0L, System.currentTimeMillis() - Math.max(0L, startMs)));
+			int delay = ConfigManager.current().restartDelaySeconds();
+			String name = DeathQueue.describe(victims);
+			String dur = formatDuration(Math.max(0L, System.currentTimeMillis() - Math.max(0L, WORLD_START_MILLIS)));
 			try {
 				Component msg;
 				if (reason == ResetReason.DEATH) {
 					msg = Component.empty()
 							.append(Component.literal(name).withStyle(ChatFormatting.GOLD, ChatFormatting.BOLD))
-							.append(Component.literal(" has died. ").withStyle(ChatFormatting.RED))
+							.append(Component.literal(victims.size() > 1 ? " have died. " : " has died. ").withStyle(ChatFormatting.RED))
 							.append(Component.literal("World lasted ").withStyle(ChatFormatting.GRAY))
 							.append(Component.literal(dur).withStyle(ChatFormatting.AQUA, ChatFormatting.BOLD))
 							.append(Component.literal(". Restart in ").withStyle(ChatFormatting.GRAY))
@@ -421,84 +474,35 @@ public class HardcorePlusNeo {
 				server.getPlayerList().broadcastSystemMessage(msg, false);
 			} catch (Throwable t) { LOGGER.warn("Failed to broadcast restart message", t); }
 
-			// Update server.properties with new level-name and maybe seed
-			Path propsFile = runDir.resolve("server.properties");
-			Properties p = new Properties();
-			String oldLevelName = "world";
-			if (Files.exists(propsFile)) { try (var in = Files.newInputStream(propsFile)) { p.load(in); oldLevelName = Optional.ofNullable(p.getProperty("level-name")).orElse(oldLevelName); } }
-
-			// Stable base name (normalize by stripping trailing time suffixes if present)
-			Path baseFile = runDir.resolve("hc_base_name.txt");
-			String baseLevelName = oldLevelName;
-			try {
-				if (Files.exists(baseFile)) {
-					String s = Files.readString(baseFile).trim();
-					if (!s.isEmpty()) baseLevelName = s;
-					String cleaned = NameUtil.stripTimeSuffixes(baseLevelName);
-					if (!cleaned.equals(baseLevelName)) {
-						baseLevelName = cleaned;
-						try { Files.writeString(baseFile, baseLevelName); LOGGER.info("Normalized base level-name to '{}' in {}", baseLevelName, baseFile.toAbsolutePath()); } catch (Throwable ignored3) {}
-					}
-				} else {
-					baseLevelName = NameUtil.stripTimeSuffixes(baseLevelName);
-					Files.writeString(baseFile, baseLevelName);
-					LOGGER.info("Saved base level-name '{}' to {}", baseLevelName, baseFile.toAbsolutePath());
-				}
-			} catch (Throwable t) { LOGGER.warn("Failed to read/write base level-name; using current", t); baseLevelName = oldLevelName; }
-
-			String timePattern = Optional.ofNullable(ConfigManager.get("time_format")).filter(s -> !s.isBlank()).orElse("HH-mm-ss_uuuu-MM-dd");
-			DateTimeFormatter dtf = DateTimeFormatter.ofPattern(timePattern).withZone(ZoneId.systemDefault());
-			String timeStr = dtf.format(Instant.now());
-			String nameFmt = Optional.ofNullable(ConfigManager.get("new_level_name_format")).filter(s -> !s.isBlank()).orElse("%name%_%time%");
-			String id = UUID.randomUUID().toString().substring(0, 8);
-			String newLevelName = NameUtil.sanitizeName(nameFmt.replace("%name%", baseLevelName).replace("%time%", timeStr).replace("%id%", id));
-			p.setProperty("level-name", newLevelName);
-
-			String newSeedWritten = null;
-			if (ConfigManager.getBoolean("force_new_seed")) {
-				String seedMode = Optional.ofNullable(ConfigManager.get("seed_mode")).orElse("random").trim().toLowerCase();
-				if (seedMode.equals("custom")) {
-					String customSeed = Optional.ofNullable(ConfigManager.get("custom_seed")).orElse("");
-					if (!customSeed.isBlank()) { p.setProperty("level-seed", customSeed); newSeedWritten = customSeed; }
-					else { long s = ThreadLocalRandom.current().nextLong(); p.setProperty("level-seed", Long.toString(s)); newSeedWritten = Long.toString(s); }
-				} else {
-					long s = ThreadLocalRandom.current().nextLong(); p.setProperty("level-seed", Long.toString(s)); newSeedWritten = Long.toString(s);
-				}
-			}
-
-			try (var out = Files.newOutputStream(propsFile, java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING)) {
-				p.store(out, "server.properties (modified by HardcorePlus+ to rotate world: new level-name and optional seed)");
-			}
-			LOGGER.info("Prepared rotation: old-level-name='{}' -> new-level-name='{}'{}", oldLevelName, newLevelName, newSeedWritten == null ? "" : ", level-seed=" + newSeedWritten);
-
-			// Write marker for startup handler
-			Path marker = runDir.resolve("hc_reset.flag");
-			Properties mp = new Properties();
-			mp.setProperty("requestedBy", "mod");
-			mp.setProperty("time", Long.toString(System.currentTimeMillis()));
-			mp.setProperty("old-level-name", oldLevelName);
-			mp.setProperty("new-level-name", newLevelName);
-			mp.setProperty("base-level-name", baseLevelName);
-			if (newSeedWritten != null) mp.setProperty("new-seed", newSeedWritten);
-			try (var w = Files.newBufferedWriter(marker)) { mp.store(w, "HardcorePlus+ world rotation metadata"); }
-			LOGGER.info("Wrote hc_reset.flag at {} with rotation metadata", marker.toAbsolutePath());
-
-			boolean autoRestart = ConfigManager.getBoolean("auto_restart");
-			// Non-blocking delay thread (delay already computed above)
-			LOGGER.info("HardcorePlus+ initiating server stop for reset in {} seconds", delay);
-			try {
-				Thread t = new Thread(() -> {
-					try { Thread.sleep(delay * 1000L); } catch (InterruptedException ignored) {}
-					try { server.execute(() -> { server.halt(false); if (autoRestart) LOGGER.info("auto_restart is true; server process should be restarted by wrapper if present"); }); } catch (Throwable ex) { LOGGER.error("Failed to stop server after delay", ex); }
-				}, "hcp-restart-timer");
-				t.setDaemon(true); t.start();
-			} catch (Throwable t) { LOGGER.warn("Failed to start restart timer thread; stopping immediately as fallback", t); try { server.halt(false); } catch (Throwable ex) { LOGGER.error("Failed to stop server", ex); } }
-
+			// server.properties, hc_base_name.txt and the rotation journal are handled on the rotation I/O executor
+			RotationPrep.submit(server.getServerDirectory(), reason.name().toLowerCase(Locale.ROOT), server, prepared -> {
+				int countdown = ConfigManager.current().restartDelaySeconds();
+				LOGGER.info("HardcorePlus+ initiating server stop for reset in {} seconds", countdown);
+				// Counted down on the server tick; /hcp reset cancel can still undo it
+				RestartCountdown.schedule(countdown, new CountdownDisplay(server), () -> {
+					Metrics.rotation();
+					try { RotationJournal.stopped(server.getServerDirectory()); } catch (IOException e) { LOGGER.warn("Failed to journal rotation stop", e); }
+					if (DiscardOnStop.shouldArm()) discardLevelsOnStop(server);
+					server.halt(false);
+					if (ConfigManager.current().autoRestart()) LOGGER.info("auto_restart is true; server process should be restarted by wrapper if present");
+				});
+			}, failure -> {
+				try { server.getPlayerList().broadcastSystemMessage(Component.literal(failure).withStyle(ChatFormatting.RED), false); } catch (Throwable t) { LOGGER.warn("Failed to broadcast rotation failure", t); }
+			});
 		} catch (Throwable t) {
 			LOGGER.error("Exception while requesting reset and stop (NeoForge)", t);
 		}
 	}
 
+	// Old world is deleted on next start: turn off saving so the stop skips the final flush
+	private static void discardLevelsOnStop(MinecraftServer server) {
+		DiscardOnStop.arm();
+		for (ServerLevel level : server.getAllLevels()) {
+			try { level.noSave = true; } catch (Throwable ignored) {}
+		}
+		LOGGER.info("Old world will be deleted on next start; skipping shutdown save");
+	}
+
 	private static String formatDuration(long millis) {
 		if (millis < 0) millis = 0;
 		long seconds = millis / 1000;
@@ -0,0 +1,93 @@
+package insidate.hardcoreplus;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tags.BiomeTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeSource;
+import net.minecraft.world.level.biome.Climate;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.structure.BuiltinStructureSets;
+import net.minecraft.world.level.levelgen.structure.StructureSet;
+import net.minecraft.world.level.levelgen.structure.placement.RandomSpreadStructurePlacement;
+import net.minecraft.world.level.levelgen.synth.NormalNoise;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Screens seeds for SeedScout with the overworld's biome source and noise router only; no chunk is generated
+final class SeedEvaluator implements SeedScout.Evaluator {
+	// Biomes are sampled near sea level, where spawn, land and villages are decided
+	private static final int SURFACE_Y = 64;
+	private static final int LAND_STEP_BLOCKS = 32;
+
+	private final BiomeSource biomes;
+	private final NoiseGeneratorSettings settings;
+	private final HolderGetter<NormalNoise.NoiseParameters> noises;
+	private final StructureSet villages;
+
+	private SeedEvaluator(BiomeSource biomes, NoiseGeneratorSettings settings, HolderGetter<NormalNoise.NoiseParameters> noises, StructureSet villages) {
+		this.biomes = biomes;
+		this.settings = settings;
+		this.noises = noises;
+		this.villages = villages;
+	}
+
+	// Null for generators without noise (e.g. superflat), which have nothing to screen
+	static SeedEvaluator create(MinecraftServer server) {
+		if (!(server.overworld().getChunkSource().getGenerator() instanceof NoiseBasedChunkGenerator gen)) return null;
+		var registries = server.registryAccess();
+		StructureSet villages = registries.registryOrThrow(Registries.STRUCTURE_SET).getHolder(BuiltinStructureSets.VILLAGES).map(Holder::value).orElse(null);
+		return new SeedEvaluator(gen.getBiomeSource(), gen.generatorSettings().value(), registries.lookupOrThrow(Registries.NOISE), villages);
+	}
+
+	@Override
+	public SeedScout.Sample evaluate(long seed, SeedScout.Rules rules) {
+		Climate.Sampler sampler = RandomState.create(settings, noises, seed).sampler();
+		BlockPos spawn = sampler.findSpawnPosition();
+		Holder<Biome> spawnBiome = biomeAt(spawn.getX(), spawn.getZ(), sampler);
+		List<String> names = new ArrayList<>();
+		spawnBiome.unwrapKey().ifPresent(k -> names.add(k.location().toString()));
+		spawnBiome.tags().forEach(t -> names.add("#" + t.location()));
+
+		int r = rules.landRadiusBlocks(), land = 0, total = 0;
+		for (int dx = -r; dx <= r; dx += LAND_STEP_BLOCKS) {
+			for (int dz = -r; dz <= r; dz += LAND_STEP_BLOCKS) {
+				if (dx * dx + dz * dz > r * r) continue;
+				Holder<Biome> b = biomeAt(spawn.getX() + dx, spawn.getZ() + dz, sampler);
+				total++;
+				if (!b.is(BiomeTags.IS_OCEAN) && !b.is(BiomeTags.IS_RIVER)) land++;
+			}
+		}
+		int village = rules.maxVillageChunks() > 0 ? nearestVillage(seed, spawn, rules.maxVillageChunks(), sampler) : -1;
+		return new SeedScout.Sample(seed, names, village, total == 0 ? 100 : land * 100 / total);
+	}
+
+	// Chunks from spawn to the closest village start whose biome allows one of the village structures
+	private int nearestVillage(long seed, BlockPos spawn, int maxChunks, Climate.Sampler sampler) {
+		if (villages == null || !(villages.placement() instanceof RandomSpreadStructurePlacement placement)) return -1;
+		ChunkPos origin = new ChunkPos(spawn);
+		int spacing = placement.spacing();
+		int best = -1;
+		for (int rx = Math.floorDiv(origin.x - maxChunks, spacing); rx <= Math.floorDiv(origin.x + maxChunks, spacing); rx++) {
+			for (int rz = Math.floorDiv(origin.z - maxChunks, spacing); rz <= Math.floorDiv(origin.z + maxChunks, spacing); rz++) {
+				ChunkPos start = placement.getPotentialStructureChunk(seed, rx * spacing, rz * spacing);
+				int dist = (int) Math.round(Math.sqrt(Math.pow(start.x - origin.x, 2) + Math.pow(start.z - origin.z, 2)));
+				if (dist > maxChunks || (best >= 0 && dist >= best)) continue;
+				Holder<Biome> b = biomeAt(start.getMiddleBlockX(), start.getMiddleBlockZ(), sampler);
+				if (villages.structures().stream().anyMatch(s -> s.structure().value().biomes().contains(b))) best = dist;
+			}
+		}
+		return best;
+	}
+
+	private Holder<Biome> biomeAt(int x, int z, Climate.Sampler sampler) {
+		return biomes.getNoiseBiome(x >> 2, SURFACE_Y >> 2, z >> 2, sampler);
+	}
+}
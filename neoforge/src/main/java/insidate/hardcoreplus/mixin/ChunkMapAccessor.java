@@ -0,0 +1,20 @@
+package insidate.hardcoreplus.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.server.level.ChunkHolder;
+import net.minecraft.server.level.ChunkMap;
+
+@Mixin(ChunkMap.class)
+public interface ChunkMapAccessor {
+	// Holders visible to the rest of the server (the map the final save walks)
+	@Accessor("visibleChunkMap")
+	Long2ObjectLinkedOpenHashMap<ChunkHolder> hcp$visibleChunkMap();
+
+	// Saves the holder's chunk if it is dirty and off its save cooldown; same call the autosave uses
+	@Invoker("saveChunkIfNeeded")
+	boolean hcp$saveChunkIfNeeded(ChunkHolder holder);
+}
@@ -0,0 +1,18 @@
+package insidate.hardcoreplus.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.server.level.ServerChunkCache;
+
+@Mixin(ServerChunkCache.class)
+public class DiscardChunkSaveMixin {
+	// ServerLevel.close() -> ServerChunkCache.close() flushes every dirty chunk and POI section
+	@Inject(at = @At("HEAD"), method = "save(Z)V", cancellable = true)
+	private void hcp$skipChunkSave(boolean flush, CallbackInfo ci) {
+		if (DiscardOnStop.isArmed()) ci.cancel();
+	}
+}
@@ -0,0 +1,18 @@
+package insidate.hardcoreplus.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.world.level.entity.PersistentEntitySectionManager;
+
+@Mixin(PersistentEntitySectionManager.class)
+public class DiscardEntitySaveMixin {
+	// ServerLevel.close() -> PersistentEntitySectionManager.close() saves all loaded entity sections
+	@Inject(at = @At("HEAD"), method = "saveAll()V", cancellable = true)
+	private void hcp$skipEntitySave(CallbackInfo ci) {
+		if (DiscardOnStop.isArmed()) ci.cancel();
+	}
+}
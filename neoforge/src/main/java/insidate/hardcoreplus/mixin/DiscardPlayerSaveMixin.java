@@ -0,0 +1,25 @@
+package insidate.hardcoreplus.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.players.PlayerList;
+
+@Mixin(PlayerList.class)
+public class DiscardPlayerSaveMixin {
+	// Player data of a discarded world is never read again
+	@Inject(at = @At("HEAD"), method = "saveAll()V", cancellable = true)
+	private void hcp$skipSaveAll(CallbackInfo ci) {
+		if (DiscardOnStop.isArmed()) ci.cancel();
+	}
+
+	// Also reached through removeAll -> remove(player)
+	@Inject(at = @At("HEAD"), method = "save(Lnet/minecraft/server/level/ServerPlayer;)V", cancellable = true)
+	private void hcp$skipSavePlayer(ServerPlayer player, CallbackInfo ci) {
+		if (DiscardOnStop.isArmed()) ci.cancel();
+	}
+}
@@ -0,0 +1,18 @@
+package insidate.hardcoreplus.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import insidate.hardcoreplus.DiscardOnStop;
+import net.minecraft.server.MinecraftServer;
+
+@Mixin(MinecraftServer.class)
+public class DiscardSaveMixin {
+	// Skip the world + level.dat save performed by stopServer when the old world will be deleted
+	@Inject(at = @At("HEAD"), method = "saveAllChunks(ZZZ)Z", cancellable = true)
+	private void hcp$skipSave(boolean suppressLogs, boolean flush, boolean forced, CallbackInfoReturnable<Boolean> cir) {
+		if (DiscardOnStop.isArmed()) cir.setReturnValue(false);
+	}
+}
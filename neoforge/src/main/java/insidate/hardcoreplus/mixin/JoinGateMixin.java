@@ -0,0 +1,25 @@
+package insidate.hardcoreplus.mixin;
+
+import java.net.SocketAddress;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import com.mojang.authlib.GameProfile;
+
+import insidate.hardcoreplus.SpawnWarmup;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.players.PlayerList;
+
+@Mixin(PlayerList.class)
+public class JoinGateMixin {
+	// Same hook as the ban/whitelist check: a non-null result refuses the login with that message
+	@Inject(at = @At("HEAD"), method = "canPlayerLogin", cancellable = true)
+	private void hcp$holdDuringWarmup(SocketAddress address, GameProfile profile, CallbackInfoReturnable<Component> cir) {
+		if (!SpawnWarmup.holdJoins()) return;
+		if (((PlayerList) (Object) this).isOp(profile)) return;
+		cir.setReturnValue(Component.literal(SpawnWarmup.holdMessage()));
+	}
+}